@@ -0,0 +1,61 @@
+package fibonacciheap;
+
+/**
+ * Min priority queue over the integer ids 0..capacity-1 whose keys can be decreased,
+ * as needed by Dijkstra's algorithm.
+ * Implementations trade asymptotic bounds for constant factors, so the fastest one depends on
+ * the shape of the workload.
+ */
+public interface AddressableHeap {
+
+  /**
+   * @return True if heap is empty,
+   *         False if heap is not empty.
+   */
+  boolean isEmpty();
+
+  /**
+   * @return Number of elements in heap.
+   */
+  int size();
+
+  /**
+   * @param id Element id.
+   * @return True if element is in heap.
+   */
+  boolean contains(int id);
+
+  /**
+   * @param id Element id, has to be in heap.
+   * @return Key of element.
+   */
+  int getKey(int id);
+
+  /**
+   * Inserts an element into the heap.
+   * @param id  Element id, must not be in heap.
+   * @param key Key of element.
+   */
+  void insert(int id, int key);
+
+  /**
+   * Decreases key of element.
+   * @param id     Element id, has to be in heap.
+   * @param newKey New key of element, at most its current key.
+   */
+  void decreaseKey(int id, int newKey);
+
+  /**
+   * @return Id of minimum element in heap.
+   * @throws FibonacciHeap.EmptyHeapException if heap is empty.
+   */
+  int peekMin();
+
+  /**
+   * Pops the minimum element from the heap.
+   * @return Id of popped element.
+   * @throws FibonacciHeap.EmptyHeapException if heap is empty.
+   */
+  int popMin();
+
+}
@@ -0,0 +1,136 @@
+package fibonacciheap;
+
+import java.util.Arrays;
+
+/**
+ * Implicit d-ary heap over the integer ids 0..capacity-1, stored in a single array.
+ * insert and decreaseKey cost O(log_d n), popMin costs O(d log_d n), so a larger arity suits
+ * workloads with many decreaseKeys per popMin. Siblings are adjacent in the array, which makes
+ * the heap cache friendly in practice.
+ */
+public class DaryHeap implements AddressableHeap {
+
+  private static final int ABSENT = -1;
+
+  private final int arity;
+  private final int[] heap; // ids in heap order
+  private final int[] pos; // position of id in heap, or ABSENT
+  private final int[] key;
+  private int size;
+
+  /**
+   * Constructs an empty heap.
+   * @param capacity Number of ids, elements are 0..capacity-1.
+   * @param arity    Number of children of each node, at least 2.
+   */
+  public DaryHeap(int capacity, int arity) {
+    assert(arity >= 2);
+    this.arity = arity;
+    heap = new int[capacity];
+    pos = new int[capacity];
+    key = new int[capacity];
+    Arrays.fill(pos, ABSENT);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean contains(int id) {
+    return pos[id] != ABSENT;
+  }
+
+  @Override
+  public int getKey(int id) {
+    assert(contains(id));
+    return key[id];
+  }
+
+  @Override
+  public void insert(int id, int newKey) {
+    assert(!contains(id));
+    key[id] = newKey;
+    siftUp(id, size++);
+  }
+
+  @Override
+  public void decreaseKey(int id, int newKey) {
+    assert(contains(id) && newKey <= key[id]);
+    key[id] = newKey;
+    siftUp(id, pos[id]);
+  }
+
+  @Override
+  public int peekMin() {
+    if (size == 0) {
+      throw new FibonacciHeap.EmptyHeapException();
+    }
+    return heap[0];
+  }
+
+  @Override
+  public int popMin() {
+    int min = peekMin();
+    pos[min] = ABSENT;
+    int last = heap[--size];
+    if (size > 0) {
+      siftDown(last, 0);
+    }
+    return min;
+  }
+
+  /**
+   * Moves id up from position i, shifting larger parents down instead of swapping.
+   */
+  private void siftUp(int id, int i) {
+    int k = key[id];
+    while (i > 0) {
+      int parent = (i - 1) / arity;
+      int p = heap[parent];
+      if (key[p] <= k) {
+        break;
+      }
+      heap[i] = p;
+      pos[p] = i;
+      i = parent;
+    }
+    heap[i] = id;
+    pos[id] = i;
+  }
+
+  /**
+   * Moves id down from position i, shifting smallest children up instead of swapping.
+   */
+  private void siftDown(int id, int i) {
+    int k = key[id];
+    while (true) {
+      int first = arity * i + 1;
+      if (first >= size) {
+        break;
+      }
+      int last = Math.min(first + arity, size);
+      int best = first;
+      for (int c = first + 1; c < last; c++) {
+        if (key[heap[c]] < key[heap[best]]) {
+          best = c;
+        }
+      }
+      if (key[heap[best]] >= k) {
+        break;
+      }
+      heap[i] = heap[best];
+      pos[heap[i]] = i;
+      i = best;
+    }
+    heap[i] = id;
+    pos[id] = i;
+  }
+
+}
@@ -6,7 +6,7 @@ package fibonacciheap;
  * @param <Elem> Type of actual elements in the heap.
  */
 public class FibElem<Elem> {
-  FibonacciHeap heap;
+  FibonacciHeap.Owner heap;
   Elem parent;
   Elem leftSibling, rightSibling;
   Elem child;
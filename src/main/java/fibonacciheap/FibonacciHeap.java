@@ -1,21 +1,64 @@
 package fibonacciheap;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implementation of the Fibonacci heap data structure which provides
  * min priority queue functionality.
  * @param <Elem> Type of elements in the heap, needs to extend FibElem<Elem>.
  */
-public class FibonacciHeap<Elem extends FibElem<Elem>> {
+public class FibonacciHeap<Elem extends FibElem<Elem>> implements Iterable<Elem> {
 
   /**
    * Exception thrown when illegal operation is requested with an empty heap.
    */
   public static class EmptyHeapException extends UnsupportedOperationException {}
 
+  /**
+   * Identity of a heap that elements point to, melding forwards it to the surviving heap's owner
+   * so that meld does not need to visit the elements.
+   */
+  static final class Owner {
+    private Owner meldedInto;
+
+    Owner find() {
+      Owner owner = this;
+      while (owner.meldedInto != null) {
+        owner = owner.meldedInto;
+      }
+      // path compression
+      for (Owner o = this; o != owner; ) {
+        Owner next = o.meldedInto;
+        o.meldedInto = owner;
+        o = next;
+      }
+      return owner;
+    }
+  }
+
   private Elem min;
+  private Owner owner = new Owner();
+  // scratch table of roots by degree for popMin, grows to O(log n) and is reused
+  private Object[] degTable = new Object[16];
+  // incremental consolidation: roots not yet in degTable, null if disabled
+  private Deque<Elem> pending;
+  // smallest queued root, so popMin does not scan the queue; unknown once it leaves the queue
+  private Elem pendingMin;
+  private boolean pendingMinUnknown;
+  private int consolidationSteps;
+  private FibonacciHeapStatistics statistics; // null if disabled
+  private long slowPopMinNanos = -1; // negative if disabled
 
   /**
    * Constructs an empty heap.
@@ -37,7 +80,7 @@ public class FibonacciHeap<Elem extends FibElem<Elem>> {
    * @param elem Element to insert.
    */
   public void insert(Elem elem) {
-    elem.heap = this;
+    elem.heap = owner;
     if (min == null) {
       min = elem;
       min.parent = null;
@@ -45,13 +88,77 @@ public class FibonacciHeap<Elem extends FibElem<Elem>> {
       min.child = null;
       min.marked = false;
       min.deg = 0;
+      if (pending != null) {
+        enqueue(elem);
+      }
     } else {
       elem.child = null;
       elem.deg = 0;
       pushToRootList(elem);
+      if (elem.key < min.key) {
+        min = elem;
+      }
+    }
+    if (statistics != null) {
+      statistics.inserts++;
+    }
+    if (pending != null) {
+      consolidateIncrementally(consolidationSteps);
+    }
+  }
+
+  /**
+   * Inserts a batch of elements, linking them into a list first and splicing it into the root
+   * list at once, with a single comparison against the old minimum.
+   * With incremental consolidation the batch is also consolidated, which costs amortised
+   * O(size of batch).
+   * @param elems Elements to insert.
+   */
+  public void insertAll(Collection<? extends Elem> elems) {
+    Elem first = null, last = null, batchMin = null;
+    for (Elem elem : elems) {
+      elem.heap = owner;
+      elem.parent = null;
+      elem.child = null;
+      elem.marked = false;
+      elem.deg = 0;
+      if (first == null) {
+        first = elem;
+      } else {
+        last.rightSibling = elem;
+        elem.leftSibling = last;
+      }
+      last = elem;
+      if (batchMin == null || elem.key < batchMin.key) {
+        batchMin = elem;
+      }
+      if (pending != null) {
+        enqueue(elem);
+      }
+      if (statistics != null) {
+        statistics.inserts++;
+      }
+    }
+    if (first == null) {
+      return;
+    }
+    last.rightSibling = first;
+    first.leftSibling = last;
+    spliceIntoRootList(batchMin);
+    if (pending != null) {
+      // the whole batch is consolidated now, like a full popMin would, so the queue stays short
+      consolidateIncrementally(elems.size() + consolidationSteps);
     }
   }
 
+  /**
+   * Inserts a batch of elements, see insertAll(Collection).
+   * @param elems Elements to insert.
+   */
+  public void insertAll(Elem[] elems) {
+    insertAll(Arrays.asList(elems));
+  }
+
   /**
    * @return Minimum element in heap.
    * @throws EmptyHeapException if heap is empty.
@@ -72,17 +179,134 @@ public class FibonacciHeap<Elem extends FibElem<Elem>> {
    *    * Has true cost of O(max depth of heap) but it has amortised cost O(1).
    */
   public void decreaseKey(Elem element, int newKey) {
-    assert(element.heap == this);
+    assert(owns(element));
     element.key = newKey;
-    if (element.parent == null) {
-      if (element.key < min.key) {
-        min = element;
+    int cuts = 0;
+    if (element.parent != null && element.key < element.parent.key) {
+      cuts = triggerLoser(element.parent, element);
+    }
+    if (statistics != null) {
+      statistics.recordDecreaseKey(cuts);
+    }
+    if (element.parent == null && element.key < min.key) {
+      min = element;
+    }
+    if (pending != null) {
+      if (isPendingRoot(element)) {
+        offerPendingMin(element);
       }
-    } else if (element.key < element.parent.key) {
+      consolidateIncrementally(consolidationSteps);
+    }
+  }
+
+  /**
+   * Decreases keys of a batch of elements.
+   * The cuts are done one after the other, but min is only updated once at the end, since only
+   * the decreased elements themselves can become the new minimum.
+   * @param elements Elements whose keys are decreased, they have to belong to the heap.
+   * @param newKeys  New keys of elements, in the same order.
+   */
+  public void decreaseKeys(List<? extends Elem> elements, int[] newKeys) {
+    assert(elements.size() == newKeys.length);
+    Elem batchMin = null;
+    int i = 0;
+    for (Elem element : elements) {
+      assert(owns(element));
+      element.key = newKeys[i++];
+      int cuts = 0;
+      if (element.parent != null && element.key < element.parent.key) {
+        cuts = triggerLoser(element.parent, element);
+      }
+      if (statistics != null) {
+        statistics.recordDecreaseKey(cuts);
+      }
+      if (pending != null && isPendingRoot(element)) {
+        offerPendingMin(element);
+      }
+      if (element.parent == null && (batchMin == null || element.key < batchMin.key)) {
+        batchMin = element;
+      }
+    }
+    if (batchMin != null && batchMin.key < min.key) {
+      min = batchMin;
+    }
+    if (pending != null) {
+      consolidateIncrementally(consolidationSteps);
+    }
+  }
+
+  /**
+   * Decreases keys of a batch of elements, see decreaseKeys(List, int[]).
+   * @param elements Elements whose keys are decreased, they have to belong to the heap.
+   * @param newKeys  New keys of elements, in the same order.
+   */
+  public void decreaseKeys(Elem[] elements, int[] newKeys) {
+    decreaseKeys(Arrays.asList(elements), newKeys);
+  }
+
+  /**
+   * Removes an element from the heap.
+   * @param element Element to remove, has to belong to the heap.
+   * @implNote Evicts it into the root list like decreaseKey and pops it as if it were the minimum,
+   * so it has the amortised cost of popMin.
+   */
+  public void delete(Elem element) {
+    assert(owns(element));
+    if (element.parent != null) {
       triggerLoser(element.parent, element);
-      connectSiblings(element);
-      pushToRootList(element);
     }
+    min = element;
+    popMin();
+  }
+
+  /**
+   * Moves all elements of other into this heap in O(1) by splicing the root lists.
+   * With incremental consolidation the roots of other are also consolidated, which costs
+   * amortised O(roots of other).
+   * Other is left empty and can be reused.
+   * @param other Heap to meld into this.
+   */
+  public void meld(FibonacciHeap<Elem> other) {
+    assert(other != this);
+    if (other.min != null) {
+      Elem otherMin = other.min, otherLast = otherMin.leftSibling;
+      spliceIntoRootList(otherMin);
+      if (statistics != null) {
+        statistics.markedNodes += other.statistics != null ? other.statistics.markedNodes : countMarked(other.min);
+      }
+      if (other.statistics != null) {
+        other.statistics.markedNodes = 0;
+      }
+      if (other.pending != null) {
+        Arrays.fill(other.degTable, null);
+        other.pending.clear();
+        other.pendingMin = null;
+        other.pendingMinUnknown = false;
+      }
+      other.min = null;
+      other.owner.meldedInto = owner;
+      other.owner = new Owner();
+      if (pending != null) {
+        // the roots of other belong to this heap now, so they can be consolidated
+        int queued = 0;
+        for (Elem root = otherMin; ; root = root.rightSibling) {
+          enqueue(root);
+          queued++;
+          if (root == otherLast) {
+            break;
+          }
+        }
+        consolidateIncrementally(queued + consolidationSteps);
+      }
+    }
+  }
+
+  /**
+   * @param element Element.
+   * @return True if element belongs to this heap.
+   */
+  boolean owns(Elem element) {
+    return element.heap != null && element.heap.find() == owner;
   }
 
   /**
@@ -94,12 +318,48 @@ public class FibonacciHeap<Elem extends FibElem<Elem>> {
    * has amortised cost O(max degree in heap) = O(log(size of heap)).
    */
   public void popMin() {
+    if (slowPopMinNanos < 0) {
+      popMinUninstrumented();
+      return;
+    }
+    long start = System.nanoTime();
+    popMinUninstrumented();
+    long duration = System.nanoTime() - start;
+    if (duration >= slowPopMinNanos) {
+      SlowPopMinEvent event = new SlowPopMinEvent();
+      if (event.isEnabled()) {
+        event.popDuration = duration;
+        event.rootListLength = statistics != null ? statistics.lastRootListLength : -1;
+        event.merges = statistics != null ? statistics.lastMerges : -1;
+        event.commit();
+      }
+    }
+  }
+
+  private void popMinUninstrumented() {
     if (min == null) {
       throw new EmptyHeapException();
     }
+    long mergesBefore = statistics != null ? statistics.merges : 0;
     min.heap = null;
+    Elem popped = min;
+    if (pending != null) {
+      if (popped == pendingMin) {
+        pendingMin = null;
+        pendingMinUnknown = true;
+      }
+      unsettle(popped);
+    }
     if (min.leftSibling == min && min.child == null) {
       min = null;
+      if (pending != null) {
+        pending.clear();
+        pendingMin = null;
+        pendingMinUnknown = false;
+      }
+      if (statistics != null) {
+        statistics.recordPopMin(1, 0);
+      }
       return;
     }
 
@@ -116,75 +376,387 @@ public class FibonacciHeap<Elem extends FibElem<Elem>> {
       min = min.leftSibling;
     }
 
-    min.parent = null;
-    int maxDeg = min.deg;
-    for (Elem root = min.rightSibling; root != min; root = root.rightSibling) {
-      root.parent = null;
-      if (root.deg > maxDeg) {
-        maxDeg = root.deg;
+    if (pending != null) {
+      // only the children of popped are new roots, the rest is consolidated in bounded steps
+      Elem child = popped.child;
+      for (int i = 0; i < popped.deg; i++) {
+        child.parent = null;
+        unmark(child);
+        enqueue(child);
+        child = child.rightSibling;
+      }
+      int queued = pending.size();
+      // the O(log n) new roots are consolidated right away so that the queue stays short
+      consolidateIncrementally(consolidationSteps + popped.deg);
+      findMinIncrementally();
+      if (statistics != null) {
+        statistics.recordPopMin(queued, statistics.merges - mergesBefore);
       }
+      return;
     }
 
+    // roots lose their parent and marks, marks only count for children
+    int noRoots = 0;
+    int maxDeg = 0;
+    Elem root = min;
+    do {
+      root.parent = null;
+      unmark(root);
+      maxDeg = Math.max(maxDeg, root.deg);
+      noRoots++;
+      root = root.rightSibling;
+    } while (root != min);
+
     // DO CLEANUP
-    // dump root list into a list
-    List<Elem> rootList = new ArrayList<>();
-    rootList.add(min);
-    for (Elem root = min.rightSibling; root != min; root = root.rightSibling) {
-      rootList.add(root);
-    }
-
-    final int maxSize = maxDeg + rootList.size() + 1;
-    Object[] degArray = new Object[maxSize]; // set to null by default
-    // merge heaps of same degree NOT caring about sibling pointers in root list
-    for (Elem root : rootList) {
-      Elem curr = root;
-      while (degArray[curr.deg] != null) {
-        curr = merge((Elem)degArray[curr.deg], curr);
+    // merge heaps of same degree, unlinking merged roots from the root list in place
+    if (degTable.length <= maxDeg + 1) {
+      degTable = new Object[2 * (maxDeg + 1)];
+    }
+    int topDeg = 0;
+    Elem curr = min;
+    for (int i = 0; i < noRoots; i++) {
+      Elem next = curr.rightSibling;
+      while (rootOfDegree(curr.deg) != null) {
+        int deg = curr.deg;
+        curr = merge(rootOfDegree(deg), curr);
         // clear previous slot
-        degArray[curr.deg-1] = null;
+        degTable[deg] = null;
+        if (curr.deg + 1 >= degTable.length) {
+          degTable = Arrays.copyOf(degTable, 2 * degTable.length);
+        }
       }
-      degArray[curr.deg] = curr;
+      degTable[curr.deg] = curr;
+      topDeg = Math.max(topDeg, curr.deg);
+      curr = next;
     }
 
-    // build new root list with min ptr
-    rootList.clear();
-    for (int deg = 0; deg < maxSize; deg++) {
-      if (degArray[deg] != null) {
-        rootList.add((Elem)degArray[deg]);
-        if (((Elem)degArray[deg]).key <= min.key) {
+    // find new min and clear the scratch table
+    for (int deg = 0; deg <= topDeg; deg++) {
+      Elem elem = rootOfDegree(deg);
+      if (elem != null) {
+        if (elem.key <= min.key || min.parent != null) {
           // We can't spare the work in equality case because min has to
           // point to an entry point in the root list and old min might no
           // longer be in root list
-          min = (Elem)degArray[deg];
+          min = elem;
+        }
+        degTable[deg] = null;
+      }
+    }
+    if (statistics != null) {
+      statistics.recordPopMin(noRoots, statistics.merges - mergesBefore);
+    }
+  }
+
+  // ORDERED ITERATION
+
+  /**
+   * Iterates over the elements in increasing key order without modifying the heap.
+   * The heap-ordered trees are explored lazily: a small frontier heap holds the roots and the
+   * children of the elements returned so far, so the first k elements cost
+   * O(r + k log(r + k)) for r roots, instead of k popMins with their consolidations.
+   * The heap must not be modified while iterating.
+   * @return Lazy iterator in increasing key order.
+   */
+  @Override
+  public Iterator<Elem> iterator() {
+    PriorityQueue<Elem> frontier = new PriorityQueue<>((a, b) -> Integer.compare(a.key, b.key));
+    if (min != null) {
+      Elem root = min;
+      do {
+        frontier.add(root);
+        root = root.rightSibling;
+      } while (root != min);
+    }
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return !frontier.isEmpty();
+      }
+
+      @Override
+      public Elem next() {
+        Elem elem = frontier.poll();
+        if (elem == null) {
+          throw new NoSuchElementException();
+        }
+        if (elem.child != null) {
+          Elem child = elem.child;
+          do {
+            frontier.add(child);
+            child = child.rightSibling;
+          } while (child != elem.child);
+        }
+        return elem;
+      }
+    };
+  }
+
+  /**
+   * @return Lazy stream of the elements in increasing key order, see iterator().
+   */
+  public Stream<Elem> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(),
+        Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  // INSTRUMENTATION
+
+  /**
+   * Starts counting operations and the work they do, see FibonacciHeapStatistics.
+   * When disabled, the only cost is a null check per operation.
+   */
+  public void enableStatistics() {
+    statistics = new FibonacciHeapStatistics();
+    if (min != null) {
+      statistics.markedNodes = countMarked(min);
+    }
+  }
+
+  public void disableStatistics() {
+    statistics = null;
+  }
+
+  /**
+   * @return Statistics since enableStatistics, or null if disabled.
+   */
+  public FibonacciHeapStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Emits a Java Flight Recorder event, fibonacciheap.SlowPopMin, for every popMin that takes at
+   * least threshold. The event carries the root list length and merges of the pop if statistics
+   * are enabled. When disabled, popMin is not timed.
+   * @param thresholdNanos Minimum duration of reported pops in nanoseconds,
+   *                       negative to disable.
+   */
+  public void setSlowPopMinThreshold(long thresholdNanos) {
+    slowPopMinNanos = thresholdNanos;
+  }
+
+  /**
+   * @param root Any root.
+   * @return Number of marked elements in the heap of root, by visiting every element.
+   */
+  private int countMarked(Elem root) {
+    int marked = 0;
+    Deque<Elem> siblingLists = new ArrayDeque<>();
+    siblingLists.push(root);
+    while (!siblingLists.isEmpty()) {
+      Elem first = siblingLists.pop();
+      Elem elem = first;
+      do {
+        if (elem.marked) {
+          marked++;
         }
+        if (elem.child != null) {
+          siblingLists.push(elem.child);
+        }
+        elem = elem.rightSibling;
+      } while (elem != first);
+    }
+    return marked;
+  }
+
+  // INCREMENTAL CONSOLIDATION
+
+  /**
+   * Switches between consolidating the whole root list in popMin and consolidating a bounded
+   * number of roots in every operation.
+   * Incrementally, roots of distinct degrees are kept in a table and new roots wait in a queue,
+   * each operation moves at most stepsPerOperation queued roots into the table, linking at most
+   * O(log n) trees for each, and popMin also moves the O(log n) children of the popped minimum.
+   * The smallest queued root is tracked as roots are queued, so popMin only scans the O(log n)
+   * table for the new minimum, and a burst of inserts no longer makes it walk a long root list.
+   * insertAll, meld and switching to this mode consolidate all the roots they add, amortised
+   * O(1) each, so they do not leave a long queue behind.
+   * If the smallest queued root is consolidated or popped, the next popMin consolidates the
+   * whole queue, which is amortised O(1) per queued root. The queue only grows beyond
+   * O(stepsPerOperation) through cascading cuts in decreaseKey, which are amortised O(1).
+   * @param stepsPerOperation Number of queued roots consolidated per operation,
+   *                          0 to switch back to full consolidation in popMin.
+   */
+  public void setIncrementalConsolidation(int stepsPerOperation) {
+    assert(stepsPerOperation >= 0);
+    consolidationSteps = stepsPerOperation;
+    if (stepsPerOperation == 0) {
+      if (pending != null) {
+        Arrays.fill(degTable, null);
+        pending = null;
+        pendingMin = null;
+        pendingMinUnknown = false;
+      }
+    } else if (pending == null) {
+      pending = new ArrayDeque<>();
+      if (min != null) {
+        Elem root = min;
+        do {
+          enqueue(root);
+          root = root.rightSibling;
+        } while (root != min);
+        consolidateIncrementally(pending.size());
       }
     }
+  }
+
+  /**
+   * @return Number of roots waiting to be consolidated, including stale entries.
+   */
+  int pendingRoots() {
+    return pending == null ? 0 : pending.size();
+  }
 
-    rootList.get(0).leftSibling = rootList.get(rootList.size()-1);
-    rootList.get(rootList.size()-1).rightSibling = rootList.get(0);
-    for (int i = 1; i < rootList.size(); i++) {
-      rootList.get(i).leftSibling = rootList.get(i-1);
-      rootList.get(i-1).rightSibling = rootList.get(i);
+  /**
+   * Moves up to maxSteps queued roots into the degree table, linking equal degrees.
+   */
+  private void consolidateIncrementally(int maxSteps) {
+    for (int step = 0; step < maxSteps && !pending.isEmpty(); ) {
+      Elem curr = pending.poll();
+      if (!isPendingRoot(curr)) {
+        continue;
+      }
+      if (curr == pendingMin) {
+        // the next smallest queued root is not known without a scan
+        pendingMin = null;
+        pendingMinUnknown = true;
+      }
+      ensureDegTable(curr.deg);
+      while (rootOfDegree(curr.deg) != null) {
+        int deg = curr.deg;
+        curr = merge(rootOfDegree(deg), curr);
+        degTable[deg] = null;
+        ensureDegTable(curr.deg);
+      }
+      degTable[curr.deg] = curr;
+      if (min.parent != null) {
+        // min lost a tie and became a child of curr
+        min = curr;
+      }
+      step++;
+    }
+    if (pending.isEmpty()) {
+      pendingMin = null;
+      pendingMinUnknown = false;
     }
   }
 
+  /**
+   * Sets min to the smallest root in the degree table or the smallest queued root.
+   * If the smallest queued root is unknown the whole queue is consolidated first.
+   */
+  private void findMinIncrementally() {
+    if (pendingMinUnknown) {
+      consolidateIncrementally(Integer.MAX_VALUE);
+    }
+    assert(pendingMin == null || isPendingRoot(pendingMin));
+    min = pendingMin;
+    for (int deg = 0; deg < degTable.length; deg++) {
+      Elem root = rootOfDegree(deg);
+      if (root != null && (min == null || root.key < min.key)) {
+        min = root;
+      }
+    }
+  }
+
+  /**
+   * Queues a new root for consolidation.
+   */
+  private void enqueue(Elem root) {
+    pending.add(root);
+    offerPendingMin(root);
+  }
+
+  /**
+   * Updates the smallest queued root with a queued root that is new or whose key decreased.
+   */
+  private void offerPendingMin(Elem root) {
+    if (!pendingMinUnknown && (pendingMin == null || root.key < pendingMin.key)) {
+      pendingMin = root;
+    }
+  }
+
+  /**
+   * @return True if elem is a root of this heap that is not in the degree table,
+   *         False for stale queue entries.
+   */
+  private boolean isPendingRoot(Elem elem) {
+    return owns(elem) && elem.parent == null
+        && (elem.deg >= degTable.length || degTable[elem.deg] != elem);
+  }
+
+  /**
+   * Removes root from the degree table before its degree changes or it leaves the heap.
+   */
+  private void unsettle(Elem root) {
+    if (root.deg < degTable.length && degTable[root.deg] == root) {
+      degTable[root.deg] = null;
+      if (root.heap != null) {
+        enqueue(root);
+      }
+    }
+  }
+
+  private void ensureDegTable(int deg) {
+    if (deg + 1 >= degTable.length) {
+      degTable = Arrays.copyOf(degTable, 2 * (deg + 1));
+    }
+  }
+
+  /**
+   * @param deg Degree.
+   * @return Root of degree deg stored during consolidation, or null.
+   */
+  @SuppressWarnings("unchecked")
+  private Elem rootOfDegree(int deg) {
+    return (Elem) degTable[deg];
+  }
+
   /**
    * Pushes elem to root list.
-   * Sets parent pointer to null but does not modify parent.
+   * Sets parent pointer to null but does not modify parent, nor min, callers compare elem with min.
    * @param elem Element to be pushed to root list.
    */
   private void pushToRootList(Elem elem) {
     assert(min != null);
 
-    elem.marked = false;
+    unmark(elem);
     elem.parent = null;
     elem.leftSibling = min;
     elem.rightSibling = min.rightSibling;
     min.rightSibling = elem;
     elem.rightSibling.leftSibling = elem;
 
-    if (elem.key < min.key) {
-      min = elem;
+    if (pending != null) {
+      enqueue(elem);
+    }
+  }
+
+  private void unmark(Elem elem) {
+    if (elem.marked) {
+      elem.marked = false;
+      if (statistics != null) {
+        statistics.markedNodes--;
+      }
+    }
+  }
+
+  /**
+   * Splices a circular list of roots into the root list with O(1) pointer writes.
+   * @param listMin Minimum of the list to splice in.
+   */
+  private void spliceIntoRootList(Elem listMin) {
+    if (min == null) {
+      min = listMin;
+      return;
+    }
+    Elem listLast = listMin.leftSibling;
+    listLast.rightSibling = min.rightSibling;
+    min.rightSibling.leftSibling = listLast;
+    min.rightSibling = listMin;
+    listMin.leftSibling = min;
+    if (listMin.key < min.key) {
+      min = listMin;
     }
   }
 
@@ -198,38 +770,50 @@ public class FibonacciHeap<Elem extends FibElem<Elem>> {
   }
 
   /**
-   * Triggers the action of elem losing child.
+   * Triggers the action of elem losing child and evicts child into the root list.
    * Handles changes in the tree above child's level that happen after child is evicted,
    * including changing elem's child pointer if necessary.
-   * Possibly a chain of eviction is triggered because of the grandchildren rule.
+   * Possibly a chain of eviction is triggered because of the grandchildren rule,
+   * this is followed iteratively upwards so deep trees cannot overflow the stack.
    * @param elem  The element who loses child.
    * @param child The child elem loses.
+   * @return Number of elements cut, the depth of the cascade.
    */
-  private void triggerLoser(Elem elem, Elem child) {
-    elem.deg--;
-    if (elem.child == child) {
-      // Change child entry point of elem
-      if (child.rightSibling == child) {
-        // Only child lost
-        elem.child = null;
-      } else {
-        // Modify entry point to children
-        elem.child = child.rightSibling;
+  private int triggerLoser(Elem elem, Elem child) {
+    for (int cuts = 1; ; cuts++) {
+      if (pending != null && elem.parent == null) {
+        unsettle(elem);
       }
-    }
-    if (!elem.marked) {
-      if (elem.parent != null) {
-        elem.marked = true;
+      elem.deg--;
+      if (elem.child == child) {
+        // Change child entry point of elem
+        if (child.rightSibling == child) {
+          // Only child lost
+          elem.child = null;
+        } else {
+          // Modify entry point to children
+          elem.child = child.rightSibling;
+        }
       }
-    } else {
-      triggerLoser(elem.parent, elem);
-      connectSiblings(elem);
-      pushToRootList(elem);
+      connectSiblings(child);
+      pushToRootList(child);
+      if (!elem.marked) {
+        if (elem.parent != null) {
+          elem.marked = true;
+          if (statistics != null) {
+            statistics.markedNodes++;
+          }
+        }
+        return cuts;
+      }
+      child = elem;
+      elem = elem.parent;
     }
   }
 
   /**
-   * Merges two heaps together so that the heap property is preserved.
+   * Merges two root heaps together so that the heap property is preserved.
+   * The root becoming a child is unlinked from the root list.
    * @param x First heap to merge.
    * @param y Second heap to merge.
    * @return The merged heap -- is equal to either x or y with fields changed.
@@ -246,8 +830,12 @@ public class FibonacciHeap<Elem extends FibElem<Elem>> {
     }
 
     // make b child of a
+    connectSiblings(b);
     b.parent = a;
     a.deg++;
+    if (statistics != null) {
+      statistics.recordMerge(a.deg);
+    }
 
     if (a.child == null) {
       a.child = b;
@@ -0,0 +1,130 @@
+package fibonacciheap;
+
+/**
+ * Counters of a FibonacciHeap that show whether a workload hits the expensive amortised cases:
+ * long cascades of cuts, long root lists to consolidate and many merges per popMin.
+ */
+public class FibonacciHeapStatistics {
+
+  long inserts, decreaseKeys, popMins;
+  long cuts;
+  int maxCascadeDepth;
+  long consolidatedRoots;
+  int maxRootListLength;
+  long merges;
+  int maxMergesPerPop;
+  int maxDegree;
+  long markedNodes;
+  // of the last popMin, for flight recorder events
+  int lastRootListLength, lastMerges;
+
+  FibonacciHeapStatistics() {}
+
+  void recordDecreaseKey(int cascadeDepth) {
+    decreaseKeys++;
+    cuts += cascadeDepth;
+    maxCascadeDepth = Math.max(maxCascadeDepth, cascadeDepth);
+  }
+
+  void recordMerge(int degree) {
+    merges++;
+    maxDegree = Math.max(maxDegree, degree);
+  }
+
+  /**
+   * @param rootListLength Number of roots to consolidate, after the children of min were added.
+   * @param popMerges      Number of merges done by the pop.
+   */
+  void recordPopMin(int rootListLength, long popMerges) {
+    popMins++;
+    consolidatedRoots += rootListLength;
+    maxRootListLength = Math.max(maxRootListLength, rootListLength);
+    maxMergesPerPop = (int) Math.max(maxMergesPerPop, popMerges);
+    lastRootListLength = rootListLength;
+    lastMerges = (int) popMerges;
+  }
+
+  public long getInserts() {
+    return inserts;
+  }
+
+  public long getDecreaseKeys() {
+    return decreaseKeys;
+  }
+
+  public long getPopMins() {
+    return popMins;
+  }
+
+  /**
+   * @return Number of elements cut into the root list by decreaseKey, including cascades.
+   */
+  public long getCuts() {
+    return cuts;
+  }
+
+  /**
+   * @return Largest number of elements cut by a single decreaseKey.
+   */
+  public int getMaxCascadeDepth() {
+    return maxCascadeDepth;
+  }
+
+  /**
+   * @return Average number of elements cut per decreaseKey.
+   */
+  public double getAverageCascadeDepth() {
+    return decreaseKeys == 0 ? 0 : (double) cuts / decreaseKeys;
+  }
+
+  /**
+   * @return Longest root list consolidated by popMin,
+   *         with incremental consolidation the longest queue of roots.
+   */
+  public int getMaxRootListLength() {
+    return maxRootListLength;
+  }
+
+  public double getAverageRootListLength() {
+    return popMins == 0 ? 0 : (double) consolidatedRoots / popMins;
+  }
+
+  /**
+   * @return Number of merges of two trees, in popMin or incremental consolidation.
+   */
+  public long getMerges() {
+    return merges;
+  }
+
+  public int getMaxMergesPerPop() {
+    return maxMergesPerPop;
+  }
+
+  public double getAverageMergesPerPop() {
+    return popMins == 0 ? 0 : (double) merges / popMins;
+  }
+
+  /**
+   * @return Largest degree a tree reached by merging.
+   */
+  public int getMaxDegree() {
+    return maxDegree;
+  }
+
+  /**
+   * @return Number of currently marked elements.
+   */
+  public long getMarkedNodes() {
+    return markedNodes;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("inserts=%d decreaseKeys=%d popMins=%d cuts=%d maxCascadeDepth=%d "
+            + "avgRootListLength=%.2f maxRootListLength=%d avgMergesPerPop=%.2f maxMergesPerPop=%d "
+            + "maxDegree=%d markedNodes=%d",
+        inserts, decreaseKeys, popMins, cuts, maxCascadeDepth, getAverageRootListLength(),
+        maxRootListLength, getAverageMergesPerPop(), maxMergesPerPop, maxDegree, markedNodes);
+  }
+
+}
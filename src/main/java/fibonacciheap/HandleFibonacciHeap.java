@@ -0,0 +1,129 @@
+package fibonacciheap;
+
+/**
+ * Fibonacci heap of arbitrary payloads, addressed through the handles returned by insert.
+ * Payloads do not need to extend FibElem, so the same object can be in several heaps.
+ * Handles of removed elements are recycled through a free list, so a heap that is
+ * repeatedly filled and emptied stops allocating once the free list is large enough.
+ * @param <T> Type of payloads.
+ */
+public class HandleFibonacciHeap<T> {
+
+  /**
+   * Position of a payload in the heap, valid until the payload is popped or deleted.
+   * @param <T> Type of payload.
+   */
+  public static final class Handle<T> extends FibElem<Handle<T>> {
+    private T payload;
+    private Handle<T> nextFree;
+
+    private Handle() {}
+
+    public T getPayload() {
+      return payload;
+    }
+  }
+
+  private final FibonacciHeap<Handle<T>> heap = new FibonacciHeap<>();
+  private Handle<T> freeList;
+  private int size;
+
+  /**
+   * @return True if heap is empty,
+   *         False if heap is not empty.
+   */
+  public boolean isEmpty() {
+    return heap.isEmpty();
+  }
+
+  /**
+   * @return Number of elements in heap.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Inserts a payload into the heap.
+   * @param key     Key of payload.
+   * @param payload Payload.
+   * @return Handle to payload, valid until it is removed from the heap.
+   */
+  public Handle<T> insert(int key, T payload) {
+    Handle<T> handle = freeList;
+    if (handle == null) {
+      handle = new Handle<>();
+    } else {
+      freeList = handle.nextFree;
+      handle.nextFree = null;
+    }
+    handle.key = key;
+    handle.payload = payload;
+    heap.insert(handle);
+    size++;
+    return handle;
+  }
+
+  /**
+   * @return Handle of minimum element in heap.
+   * @throws FibonacciHeap.EmptyHeapException if heap is empty.
+   */
+  public Handle<T> peekMin() {
+    return heap.peekMin();
+  }
+
+  /**
+   * Pops the minimum element from the heap, its handle becomes invalid.
+   * @return Payload of popped element.
+   * @throws FibonacciHeap.EmptyHeapException if heap is empty.
+   */
+  public T popMin() {
+    Handle<T> handle = heap.peekMin();
+    heap.popMin();
+    return release(handle);
+  }
+
+  /**
+   * Decreases key of element.
+   * @param handle Handle of element, has to be in this heap.
+   * @param newKey New key of element.
+   */
+  public void decreaseKey(Handle<T> handle, int newKey) {
+    heap.decreaseKey(handle, newKey);
+  }
+
+  /**
+   * Removes an element from the heap, its handle becomes invalid.
+   * @param handle Handle of element, has to be in this heap.
+   * @return Payload of removed element.
+   */
+  public T delete(Handle<T> handle) {
+    heap.delete(handle);
+    return release(handle);
+  }
+
+  /**
+   * Moves all elements of other into this heap in O(1), their handles stay valid.
+   * Other is left empty and can be reused.
+   * @param other Heap to meld into this.
+   */
+  public void meld(HandleFibonacciHeap<T> other) {
+    heap.meld(other.heap);
+    size += other.size;
+    other.size = 0;
+    if (freeList == null) {
+      freeList = other.freeList;
+      other.freeList = null;
+    }
+  }
+
+  private T release(Handle<T> handle) {
+    T payload = handle.payload;
+    handle.payload = null;
+    handle.nextFree = freeList;
+    freeList = handle;
+    size--;
+    return payload;
+  }
+
+}
@@ -0,0 +1,260 @@
+package fibonacciheap;
+
+import java.util.Arrays;
+
+/**
+ * IndexedFibonacciHeap with long keys, specialized by hand so that keys are never boxed.
+ * Long.MAX_VALUE can be used as an infinite key.
+ */
+public class LongIndexedFibonacciHeap {
+
+  private static final int NIL = -1;
+
+  private final int[] parent, child, left, right;
+  private final long[] key;
+  private final byte[] deg;
+  private final boolean[] marked;
+  // degTable[d] is the root of degree d during consolidation, the degree is O(log n) < 64
+  private final int[] degTable = new int[64];
+
+  private int min = NIL;
+  private int size;
+
+  /**
+   * Constructs an empty heap.
+   * @param capacity Number of ids, elements are 0..capacity-1.
+   */
+  public LongIndexedFibonacciHeap(int capacity) {
+    parent = new int[capacity];
+    child = new int[capacity];
+    left = new int[capacity];
+    right = new int[capacity];
+    key = new long[capacity];
+    deg = new byte[capacity];
+    marked = new boolean[capacity];
+    Arrays.fill(right, NIL);
+    Arrays.fill(degTable, NIL);
+  }
+
+  /**
+   * @return True if heap is empty,
+   *         False if heap is not empty.
+   */
+  public boolean isEmpty() {
+    return min == NIL;
+  }
+
+  /**
+   * @return Number of elements in heap.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @param id Element id.
+   * @return True if element is in heap.
+   */
+  public boolean contains(int id) {
+    return right[id] != NIL;
+  }
+
+  /**
+   * @param id Element id, has to be in heap.
+   * @return Key of element.
+   */
+  public long getKey(int id) {
+    assert(contains(id));
+    return key[id];
+  }
+
+  /**
+   * Inserts an element into the heap.
+   * @param id     Element id, must not be in heap.
+   * @param newKey Key of element.
+   */
+  public void insert(int id, long newKey) {
+    assert(!contains(id));
+    key[id] = newKey;
+    child[id] = NIL;
+    deg[id] = 0;
+    size++;
+    if (min == NIL) {
+      parent[id] = NIL;
+      marked[id] = false;
+      left[id] = right[id] = id;
+      min = id;
+    } else {
+      pushToRootList(id);
+    }
+  }
+
+  /**
+   * @return Id of minimum element in heap.
+   * @throws FibonacciHeap.EmptyHeapException if heap is empty.
+   */
+  public int peekMin() {
+    if (min == NIL) {
+      throw new FibonacciHeap.EmptyHeapException();
+    }
+    return min;
+  }
+
+  /**
+   * Decreases key of element.
+   * @param id     Element id, has to be in heap.
+   * @param newKey New key of element.
+   */
+  public void decreaseKey(int id, long newKey) {
+    assert(contains(id) && newKey <= key[id]);
+    key[id] = newKey;
+    int p = parent[id];
+    if (p == NIL) {
+      if (newKey < key[min]) {
+        min = id;
+      }
+    } else if (newKey < key[p]) {
+      cut(id);
+    }
+  }
+
+  /**
+   * Pops the minimum element from the heap, see FibonacciHeap.popMin().
+   * @return Id of popped element.
+   * @throws FibonacciHeap.EmptyHeapException if the heap is empty.
+   */
+  public int popMin() {
+    int popped = peekMin();
+    size--;
+    int c = child[popped];
+    if (c != NIL) {
+      // splice children into root list in place of popped
+      for (int x = c; parent[x] != NIL; x = right[x]) {
+        parent[x] = NIL;
+      }
+      if (left[popped] == popped) {
+        min = c;
+      } else {
+        int last = left[c];
+        right[left[popped]] = c;
+        left[c] = left[popped];
+        left[right[popped]] = last;
+        right[last] = right[popped];
+        min = c;
+      }
+    } else if (left[popped] == popped) {
+      min = NIL;
+    } else {
+      connectSiblings(popped);
+      min = right[popped];
+    }
+    right[popped] = NIL;
+    if (min != NIL) {
+      consolidate();
+    }
+    return popped;
+  }
+
+  /**
+   * Links roots of equal degree until degrees are distinct and finds the new minimum.
+   * Merged roots are unlinked from the root list in place, so no intermediate list is built.
+   */
+  private void consolidate() {
+    int noRoots = 1;
+    for (int x = right[min]; x != min; x = right[x]) {
+      noRoots++;
+    }
+    int maxDeg = 0;
+    int curr = min;
+    for (int i = 0; i < noRoots; i++) {
+      int next = right[curr];
+      int d = deg[curr];
+      while (degTable[d] != NIL) {
+        curr = merge(degTable[d], curr);
+        degTable[d++] = NIL;
+      }
+      degTable[d] = curr;
+      maxDeg = Math.max(maxDeg, d);
+      curr = next;
+    }
+    min = NIL;
+    for (int d = 0; d <= maxDeg; d++) {
+      int root = degTable[d];
+      if (root != NIL) {
+        if (min == NIL || key[root] < key[min]) {
+          min = root;
+        }
+        degTable[d] = NIL;
+      }
+    }
+  }
+
+  /**
+   * Makes the root with larger key a child of the other.
+   * @return The root that stays in the root list.
+   */
+  private int merge(int x, int y) {
+    int a = x, b = y;
+    if (key[y] < key[x]) {
+      a = y;
+      b = x;
+    }
+    connectSiblings(b);
+    parent[b] = a;
+    marked[b] = false;
+    deg[a]++;
+    int c = child[a];
+    if (c == NIL) {
+      child[a] = b;
+      left[b] = right[b] = b;
+    } else {
+      right[b] = right[c];
+      left[right[c]] = b;
+      right[c] = b;
+      left[b] = c;
+    }
+    return a;
+  }
+
+  /**
+   * Cuts id from its parent into the root list and continues up through marked ancestors.
+   */
+  private void cut(int id) {
+    int x = id;
+    while (true) {
+      int p = parent[x];
+      deg[p]--;
+      if (child[p] == x) {
+        child[p] = right[x] == x ? NIL : right[x];
+      }
+      connectSiblings(x);
+      pushToRootList(x);
+      if (parent[p] == NIL) {
+        return;
+      }
+      if (!marked[p]) {
+        marked[p] = true;
+        return;
+      }
+      x = p;
+    }
+  }
+
+  private void pushToRootList(int id) {
+    marked[id] = false;
+    parent[id] = NIL;
+    left[id] = min;
+    right[id] = right[min];
+    right[min] = id;
+    left[right[id]] = id;
+    if (key[id] < key[min]) {
+      min = id;
+    }
+  }
+
+  private void connectSiblings(int id) {
+    right[left[id]] = right[id];
+    left[right[id]] = left[id];
+  }
+
+}
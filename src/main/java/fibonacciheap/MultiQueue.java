@@ -0,0 +1,130 @@
+package fibonacciheap;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent min priority queue with relaxed ordering, made of c * P sequential heaps each
+ * guarded by a lock that is only ever tried, never waited for.
+ * insert adds to a random heap, deleteMin samples two random heaps and pops the smaller top.
+ * So deleteMin does not always return the minimum, but a small number of ranks away from it in
+ * expectation (O(c * P)), while threads rarely contend for the same heap.
+ * @param <T> Type of payloads.
+ */
+public class MultiQueue<T> {
+
+  private static final class Queue<T> {
+    final ReentrantLock lock = new ReentrantLock();
+    final HandleFibonacciHeap<T> heap = new HandleFibonacciHeap<>();
+    // read without the lock when sampling, written under it
+    volatile int size;
+    volatile int topKey;
+
+    void update() {
+      size = heap.size();
+      topKey = heap.isEmpty() ? Integer.MAX_VALUE : heap.peekMin().getKey();
+    }
+  }
+
+  private final Queue<T>[] queues;
+
+  /**
+   * Constructs an empty queue with two heaps per available processor.
+   */
+  public MultiQueue() {
+    this(Runtime.getRuntime().availableProcessors(), 2);
+  }
+
+  /**
+   * @param threads         Number of threads expected to use the queue, P.
+   * @param queuesPerThread Number of heaps per thread, c, more means less contention
+   *                        but larger rank error.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public MultiQueue(int threads, int queuesPerThread) {
+    assert(threads > 0 && queuesPerThread > 0);
+    queues = new Queue[threads * queuesPerThread];
+    for (int i = 0; i < queues.length; i++) {
+      queues[i] = new Queue<>();
+    }
+  }
+
+  /**
+   * Inserts a payload into a random heap that is not locked.
+   * @param key     Key of payload.
+   * @param payload Payload.
+   */
+  public void insert(int key, T payload) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (true) {
+      Queue<T> queue = queues[random.nextInt(queues.length)];
+      if (queue.lock.tryLock()) {
+        try {
+          queue.heap.insert(key, payload);
+          queue.update();
+        } finally {
+          queue.lock.unlock();
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Pops an element with a small key, the smaller top of two random heaps.
+   * @return Payload of popped element, or null if every heap was found empty.
+   */
+  public T deleteMin() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int attempt = 0; attempt < 2 * queues.length; attempt++) {
+      Queue<T> a = queues[random.nextInt(queues.length)];
+      Queue<T> b = queues[random.nextInt(queues.length)];
+      Queue<T> queue = a.size == 0 || (b.size != 0 && b.topKey < a.topKey) ? b : a;
+      if (queue.size == 0 || !queue.lock.tryLock()) {
+        continue;
+      }
+      try {
+        if (!queue.heap.isEmpty()) {
+          T payload = queue.heap.popMin();
+          queue.update();
+          return payload;
+        }
+      } finally {
+        queue.lock.unlock();
+      }
+    }
+    // sampling kept missing, the queue is (nearly) empty
+    for (Queue<T> queue : queues) {
+      queue.lock.lock();
+      try {
+        if (!queue.heap.isEmpty()) {
+          T payload = queue.heap.popMin();
+          queue.update();
+          return payload;
+        }
+      } finally {
+        queue.lock.unlock();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return Number of elements, exact only if no operation runs concurrently.
+   */
+  public int size() {
+    int size = 0;
+    for (Queue<T> queue : queues) {
+      size += queue.size;
+    }
+    return size;
+  }
+
+  /**
+   * @return Number of internal heaps, c * P.
+   */
+  public int queues() {
+    return queues.length;
+  }
+
+}
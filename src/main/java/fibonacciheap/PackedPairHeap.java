@@ -0,0 +1,148 @@
+package fibonacciheap;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of (int key, int value) pairs packed into a single long[], key in the high
+ * half, so that comparing pairs is one long comparison and a pair costs 8 bytes.
+ * Pairs are not addressable, decreasing a key means pushing a new pair and skipping the stale
+ * one when it surfaces, which compact can also remove in bulk.
+ */
+public class PackedPairHeap {
+
+  /**
+   * Test of a pair, used to find stale pairs.
+   */
+  @FunctionalInterface
+  public interface PairPredicate {
+    boolean test(int key, int value);
+  }
+
+  private long[] pairs;
+  private int size;
+
+  public PackedPairHeap() {
+    this(16);
+  }
+
+  /**
+   * @param initialCapacity Number of pairs before the array grows.
+   */
+  public PackedPairHeap(int initialCapacity) {
+    pairs = new long[Math.max(1, initialCapacity)];
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Pushes a pair in O(log n).
+   * @param key   Key of pair.
+   * @param value Value of pair.
+   */
+  public void push(int key, int value) {
+    if (size == pairs.length) {
+      pairs = Arrays.copyOf(pairs, 2 * size);
+    }
+    long pair = pack(key, value);
+    int i = size++;
+    while (i > 0) {
+      int parent = (i - 1) / 2;
+      if (pairs[parent] <= pair) {
+        break;
+      }
+      pairs[i] = pairs[parent];
+      i = parent;
+    }
+    pairs[i] = pair;
+  }
+
+  /**
+   * @return Key of the minimum pair.
+   * @throws FibonacciHeap.EmptyHeapException if heap is empty.
+   */
+  public int peekKey() {
+    if (size == 0) {
+      throw new FibonacciHeap.EmptyHeapException();
+    }
+    return (int) (pairs[0] >> 32);
+  }
+
+  /**
+   * @return Value of the minimum pair, pairs with equal keys are ordered by value.
+   * @throws FibonacciHeap.EmptyHeapException if heap is empty.
+   */
+  public int peekValue() {
+    if (size == 0) {
+      throw new FibonacciHeap.EmptyHeapException();
+    }
+    return (int) pairs[0];
+  }
+
+  /**
+   * Pops the minimum pair in O(log n).
+   * @throws FibonacciHeap.EmptyHeapException if heap is empty.
+   */
+  public void pop() {
+    if (size == 0) {
+      throw new FibonacciHeap.EmptyHeapException();
+    }
+    size--;
+    if (size > 0) {
+      siftDown(pairs[size], 0);
+    }
+  }
+
+  /**
+   * Removes every pair matching stale and rebuilds the heap bottom-up in O(n).
+   * @param stale Test of pairs to remove.
+   * @return Number of removed pairs.
+   */
+  public int compact(PairPredicate stale) {
+    int kept = 0;
+    for (int i = 0; i < size; i++) {
+      long pair = pairs[i];
+      if (!stale.test((int) (pair >> 32), (int) pair)) {
+        pairs[kept++] = pair;
+      }
+    }
+    int removed = size - kept;
+    size = kept;
+    for (int i = size / 2 - 1; i >= 0; i--) {
+      siftDown(pairs[i], i);
+    }
+    return removed;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  private void siftDown(long pair, int i) {
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && pairs[child + 1] < pairs[child]) {
+        child++;
+      }
+      if (pairs[child] >= pair) {
+        break;
+      }
+      pairs[i] = pairs[child];
+      i = child;
+    }
+    pairs[i] = pair;
+  }
+
+  private static long pack(int key, int value) {
+    return ((long) key << 32) | (value & 0xFFFFFFFFL);
+  }
+
+}
@@ -0,0 +1,147 @@
+package fibonacciheap;
+
+import java.util.Arrays;
+
+/**
+ * Monotone radix heap over the integer ids 0..capacity-1 with non-negative keys.
+ * Keys inserted or decreased must not be smaller than the last popped key, which holds for
+ * Dijkstra's algorithm with non-negative weights.
+ * Element with key k is in bucket 0 if k equals the last popped key, otherwise in bucket
+ * (index of highest bit where k and last popped key differ) + 1. Each element moves to a lower
+ * bucket at most 32 times, so popMin costs O(log C) amortised, insert and decreaseKey O(1).
+ */
+public class RadixHeap implements AddressableHeap {
+
+  private static final int NIL = -1;
+  private static final int NO_BUCKETS = 33;
+
+  // doubly linked bucket lists
+  private final int[] next, prev;
+  private final int[] bucketOf; // or NIL if not in heap
+  private final int[] key;
+  private final int[] buckets = new int[NO_BUCKETS];
+  private int last; // last popped key
+  private int size;
+
+  /**
+   * Constructs an empty heap.
+   * @param capacity Number of ids, elements are 0..capacity-1.
+   */
+  public RadixHeap(int capacity) {
+    next = new int[capacity];
+    prev = new int[capacity];
+    bucketOf = new int[capacity];
+    key = new int[capacity];
+    Arrays.fill(bucketOf, NIL);
+    Arrays.fill(buckets, NIL);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean contains(int id) {
+    return bucketOf[id] != NIL;
+  }
+
+  @Override
+  public int getKey(int id) {
+    assert(contains(id));
+    return key[id];
+  }
+
+  @Override
+  public void insert(int id, int newKey) {
+    assert(!contains(id) && newKey >= last);
+    key[id] = newKey;
+    size++;
+    push(id, bucket(newKey));
+  }
+
+  @Override
+  public void decreaseKey(int id, int newKey) {
+    assert(contains(id) && newKey <= key[id] && newKey >= last);
+    key[id] = newKey;
+    int b = bucket(newKey);
+    if (b != bucketOf[id]) {
+      unlink(id);
+      push(id, b);
+    }
+  }
+
+  @Override
+  public int peekMin() {
+    if (size == 0) {
+      throw new FibonacciHeap.EmptyHeapException();
+    }
+    if (buckets[0] == NIL) {
+      redistribute();
+    }
+    return buckets[0];
+  }
+
+  @Override
+  public int popMin() {
+    int min = peekMin();
+    unlink(min);
+    bucketOf[min] = NIL;
+    size--;
+    return min;
+  }
+
+  /**
+   * Empties the first non-empty bucket into lower buckets relative to its minimum key,
+   * which becomes the last popped key. Afterwards bucket 0 is non-empty.
+   */
+  private void redistribute() {
+    int b = 1;
+    while (buckets[b] == NIL) {
+      b++;
+    }
+    int minKey = Integer.MAX_VALUE;
+    for (int x = buckets[b]; x != NIL; x = next[x]) {
+      minKey = Math.min(minKey, key[x]);
+    }
+    last = minKey;
+    int x = buckets[b];
+    buckets[b] = NIL;
+    while (x != NIL) {
+      int following = next[x];
+      push(x, bucket(key[x]));
+      x = following;
+    }
+  }
+
+  private int bucket(int k) {
+    return k == last ? 0 : 32 - Integer.numberOfLeadingZeros(k ^ last);
+  }
+
+  private void push(int id, int b) {
+    bucketOf[id] = b;
+    prev[id] = NIL;
+    next[id] = buckets[b];
+    if (buckets[b] != NIL) {
+      prev[buckets[b]] = id;
+    }
+    buckets[b] = id;
+  }
+
+  private void unlink(int id) {
+    if (prev[id] == NIL) {
+      buckets[bucketOf[id]] = next[id];
+    } else {
+      next[prev[id]] = next[id];
+    }
+    if (next[id] != NIL) {
+      prev[next[id]] = prev[id];
+    }
+  }
+
+}
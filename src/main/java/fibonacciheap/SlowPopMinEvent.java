@@ -0,0 +1,31 @@
+package fibonacciheap;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for a FibonacciHeap.popMin over the threshold of its heap.
+ */
+@Name("fibonacciheap.SlowPopMin")
+@Label("Slow Fibonacci heap popMin")
+@Category("Algorithms")
+@Description("popMin of a FibonacciHeap that took at least the configured threshold")
+class SlowPopMinEvent extends Event {
+
+  @Label("Pop Duration")
+  @Timespan(Timespan.NANOSECONDS)
+  long popDuration;
+
+  @Label("Root list length")
+  @Description("Roots consolidated by the pop, -1 without statistics")
+  int rootListLength;
+
+  @Label("Merges")
+  @Description("Trees merged by the pop, -1 without statistics")
+  int merges;
+
+}
@@ -0,0 +1,53 @@
+package fibonacciheap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Selection of the k smallest items of a stream too large to hold, in one pass over it.
+ */
+public final class TopK {
+
+  private TopK() {}
+
+  /**
+   * Keeps the k smallest items seen so far in a max-heap, so that each further item costs
+   * O(1) if it is not among them and O(log k) otherwise, with O(k) memory.
+   * @param items      Items, consumed once.
+   * @param k          Number of items to select.
+   * @param comparator Order of items.
+   * @param <T>        Type of items.
+   * @return The k smallest items, fewer if there are not enough, in increasing order.
+   */
+  public static <T> List<T> topK(Iterator<? extends T> items, int k, Comparator<? super T> comparator) {
+    assert(k >= 0);
+    if (k == 0) {
+      return new ArrayList<>();
+    }
+    PriorityQueue<T> largestFirst = new PriorityQueue<>(k, Collections.reverseOrder(comparator));
+    while (items.hasNext()) {
+      T item = items.next();
+      if (largestFirst.size() < k) {
+        largestFirst.add(item);
+      } else if (comparator.compare(item, largestFirst.peek()) < 0) {
+        largestFirst.poll();
+        largestFirst.add(item);
+      }
+    }
+    List<T> smallest = new ArrayList<>(largestFirst);
+    smallest.sort(comparator);
+    return smallest;
+  }
+
+  /**
+   * See topK(Iterator, int, Comparator), in natural order.
+   */
+  public static <T extends Comparable<? super T>> List<T> topK(Iterator<? extends T> items, int k) {
+    return topK(items, k, Comparator.naturalOrder());
+  }
+
+}
@@ -0,0 +1,175 @@
+package graph;
+
+import java.util.stream.IntStream;
+
+/**
+ * Directed weighted graph in compressed sparse row form: the edges from v are
+ * offsets[v]..offsets[v + 1] - 1, with targets and weights in primitive arrays.
+ * Relaxing the edges of a vertex reads three contiguous arrays, with no object per vertex or
+ * edge, so a graph costs 8 bytes per edge (12 with long or double weights) and 4 bytes per
+ * vertex. Exactly one of the weight arrays is set.
+ */
+final class CsrGraph {
+
+  // below this many edges per chunk the build is not worth splitting
+  private static final int MIN_CHUNK = 1 << 16;
+
+  final int[] offsets;
+  final int[] targets;
+  final int[] weights; // null unless int weighted
+  final long[] longWeights; // null unless long weighted
+  final double[] doubleWeights; // null unless double weighted
+
+  private CsrGraph(int[] offsets, int[] targets, int[] weights, long[] longWeights,
+                   double[] doubleWeights) {
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+    this.longWeights = longWeights;
+    this.doubleWeights = doubleWeights;
+  }
+
+  int noVertices() {
+    return offsets.length - 1;
+  }
+
+  int noEdges() {
+    return targets.length;
+  }
+
+  boolean isLongWeighted() {
+    return longWeights != null;
+  }
+
+  boolean isDoubleWeighted() {
+    return doubleWeights != null;
+  }
+
+  /**
+   * @param noVertices Number of vertices.
+   * @param from       Sources of edges.
+   * @param to         Targets of edges.
+   * @param weights    Non-negative weights of edges.
+   * @return Graph with the edges of each vertex in input order.
+   */
+  static CsrGraph fromEdges(int noVertices, int[] from, int[] to, int[] weights) {
+    assert(from.length == to.length && to.length == weights.length);
+    Layout layout = new Layout(noVertices, from);
+    int[] targets = new int[to.length];
+    int[] sortedWeights = new int[weights.length];
+    layout.scatter((i, pos) -> {
+      assert(weights[i] >= 0);
+      targets[pos] = to[i];
+      sortedWeights[pos] = weights[i];
+    });
+    return new CsrGraph(layout.offsets, targets, sortedWeights, null, null);
+  }
+
+  /**
+   * @param noVertices Number of vertices.
+   * @param from       Sources of edges.
+   * @param to         Targets of edges.
+   * @param weights    Non-negative weights of edges.
+   * @return Graph with the edges of each vertex in input order.
+   */
+  static CsrGraph fromEdges(int noVertices, int[] from, int[] to, long[] weights) {
+    assert(from.length == to.length && to.length == weights.length);
+    Layout layout = new Layout(noVertices, from);
+    int[] targets = new int[to.length];
+    long[] sortedWeights = new long[weights.length];
+    layout.scatter((i, pos) -> {
+      assert(weights[i] >= 0);
+      targets[pos] = to[i];
+      sortedWeights[pos] = weights[i];
+    });
+    return new CsrGraph(layout.offsets, targets, null, sortedWeights, null);
+  }
+
+  /**
+   * @param noVertices Number of vertices.
+   * @param from       Sources of edges.
+   * @param to         Targets of edges.
+   * @param weights    Non-negative weights of edges, not NaN.
+   * @return Graph with the edges of each vertex in input order.
+   */
+  static CsrGraph fromEdges(int noVertices, int[] from, int[] to, double[] weights) {
+    assert(from.length == to.length && to.length == weights.length);
+    Layout layout = new Layout(noVertices, from);
+    int[] targets = new int[to.length];
+    double[] sortedWeights = new double[weights.length];
+    layout.scatter((i, pos) -> {
+      // also rejects NaN
+      assert(weights[i] >= 0);
+      targets[pos] = to[i];
+      sortedWeights[pos] = weights[i];
+    });
+    return new CsrGraph(layout.offsets, targets, null, null, sortedWeights);
+  }
+
+  @FunctionalInterface
+  private interface EdgeMove {
+    void move(int edge, int pos);
+  }
+
+  /**
+   * Parallel counting sort of edges by source. The edges are cut into chunks that each count
+   * their sources, the counts are turned into a disjoint range of positions for every
+   * (chunk, source) pair, and each chunk writes its edges there, so no writes race and the
+   * order of edges of a vertex is the input order.
+   * Every chunk keeps a counter per vertex, so there are at most E / V chunks and the counters
+   * never take more memory than the targets.
+   */
+  private static final class Layout {
+    final int[] offsets;
+    private final int[] from;
+    private final int noChunks;
+    // cursors[c][v] is the next position for an edge of chunk c from v
+    private final int[][] cursors;
+
+    Layout(int noVertices, int[] from) {
+      this.from = from;
+      int parallelism = Runtime.getRuntime().availableProcessors();
+      int maxChunks = Math.min(from.length / MIN_CHUNK, from.length / Math.max(1, noVertices));
+      noChunks = Math.max(1, Math.min(parallelism, maxChunks));
+      cursors = new int[noChunks][];
+      IntStream.range(0, noChunks).parallel().forEach(c -> {
+        int[] counts = new int[noVertices];
+        for (int i = chunkStart(c); i < chunkStart(c + 1); i++) {
+          counts[from[i]]++;
+        }
+        cursors[c] = counts;
+      });
+      offsets = new int[noVertices + 1];
+      for (int v = 0; v < noVertices; v++) {
+        int degree = 0;
+        for (int c = 0; c < noChunks; c++) {
+          degree += cursors[c][v];
+        }
+        offsets[v + 1] = offsets[v] + degree;
+      }
+      // turn counts into starting positions, independently for each vertex
+      IntStream.range(0, noVertices).parallel().forEach(v -> {
+        int pos = offsets[v];
+        for (int c = 0; c < noChunks; c++) {
+          int count = cursors[c][v];
+          cursors[c][v] = pos;
+          pos += count;
+        }
+      });
+    }
+
+    void scatter(EdgeMove move) {
+      IntStream.range(0, noChunks).parallel().forEach(c -> {
+        int[] cursor = cursors[c];
+        for (int i = chunkStart(c); i < chunkStart(c + 1); i++) {
+          move.move(i, cursor[from[i]]++);
+        }
+      });
+    }
+
+    private int chunkStart(int c) {
+      return (int) ((long) from.length * c / noChunks);
+    }
+  }
+
+}
@@ -1,76 +1,268 @@
 package graph;
 
-import fibonacciheap.FibElem;
-import fibonacciheap.FibonacciHeap;
+import fibonacciheap.AddressableHeap;
+import fibonacciheap.IndexedFibonacciHeap;
+import fibonacciheap.PackedPairHeap;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 
+/**
+ * Dijkstra's algorithm over a CsrGraph with int weights. Vertex state lives in primitive arrays
+ * indexed by vertex, so a query touches no object per vertex or edge.
+ * The graph is never modified by a query, and queries through a DijkstraContext may run
+ * concurrently from any number of threads.
+ */
 final class Dijkstra {
 
-  static class Vertex extends FibElem<Vertex> {
-    final String handle;
-    static class Edge {
-      final Vertex to;
-      final int weight;
+  static final int NO_TARGET = -1;
 
-      Edge(Vertex to, int weight) {
-        this.to = to;
-        this.weight = weight;
-      }
-    }
-    List<Edge> neighbours = new ArrayList<>();
+  final private CsrGraph graph;
+  final private DijkstraContext.Pool contexts;
 
-    Vertex(String handle) {
-      this.handle = handle;
-    }
+  Dijkstra(int noVertices, List<Integer> from, List<Integer> to, List<Integer> weights) {
+    this(CsrGraph.fromEdges(noVertices, toArray(from), toArray(to), toArray(weights)));
+  }
 
-    void addEdge(Vertex to, int weight) {
-      neighbours.add(new Edge(to, weight));
-    }
-    Iterable<Edge> getNeighbours() {
-      return neighbours;
+  /**
+   * @param graph Graph with int weights.
+   */
+  Dijkstra(CsrGraph graph) {
+    assert(graph.weights != null);
+    this.graph = graph;
+    this.contexts = new DijkstraContext.Pool(graph.noVertices());
+  }
+
+  private static int[] toArray(List<Integer> list) {
+    return list.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Computes the shortest path tree from s with a context from the pool of this graph, so that
+   * concurrent queries do not share state. The search itself reuses the pooled arrays, only
+   * the returned copies of distances and predecessors are allocated per query.
+   * @param s Source vertex.
+   * @return Distances and predecessors of all vertices.
+   */
+  ShortestPaths computeShortestPaths(int s) {
+    DijkstraContext context = contexts.acquire();
+    try {
+      search(s, context);
+      return new ShortestPaths(s, context.distances.clone(), context.predecessors.clone());
+    } finally {
+      contexts.release(context);
     }
   }
 
-  final private Vertex[] vertices;
+  /**
+   * Computes a shortest path from s to t, settling only the vertices closer to s than t.
+   * @param s Source vertex.
+   * @param t Target vertex.
+   * @return Shortest path from s to t, unreachable if there is none.
+   */
+  Path shortestPath(int s, int t) {
+    DijkstraContext context = contexts.acquire();
+    try {
+      search(s, context, t, Integer.MAX_VALUE, Integer.MAX_VALUE);
+      int distance = context.distances[t];
+      if (distance == Integer.MAX_VALUE) {
+        return Path.unreachable();
+      }
+      return new Path(distance, ShortestPaths.tracePath(context.predecessors, s, t));
+    } finally {
+      contexts.release(context);
+    }
+  }
 
-  Dijkstra(int noVertices, List<Integer> from, List<Integer> to, List<Integer> weights) {
-    assert(from.size() == to.size() && to.size() == weights.size());
-    vertices = new Vertex[noVertices];
-    for (int i = 0; i < noVertices; i++)
-      vertices[i] = new Vertex(Integer.toString(i));
-    for (int i = 0; i < from.size(); i++)
-      vertices[from.get(i)].addEdge(vertices[to.get(i)], weights.get(i));
+  /**
+   * Finds the vertices within a distance of s, settling no vertex beyond it.
+   * @param s      Source vertex.
+   * @param radius Largest distance to include.
+   * @return Vertices at distance at most radius from s, in order of distance.
+   */
+  Neighbourhood withinRadius(int s, int radius) {
+    return neighbourhood(s, radius, Integer.MAX_VALUE);
   }
 
+  /**
+   * Finds the k vertices closest to s, including s itself, settling no others.
+   * Ties at the k-th distance are broken arbitrarily.
+   * @param s Source vertex.
+   * @param k Number of vertices.
+   * @return At most k vertices closest to s, in order of distance.
+   */
+  Neighbourhood nearest(int s, int k) {
+    return neighbourhood(s, Integer.MAX_VALUE, k);
+  }
 
-  void computeShortestPaths(int s) {
-    FibonacciHeap<Vertex> fibonacciHeap = new FibonacciHeap<>();
-    for (Vertex vertex : vertices) {
-      fibonacciHeap.insert(vertex);
+  private Neighbourhood neighbourhood(int s, int radius, int limit) {
+    DijkstraContext context = contexts.acquire();
+    try {
+      search(s, context, NO_TARGET, radius, limit);
+      int[] vertices = Arrays.copyOf(context.settled, context.noSettled());
+      int[] distances = new int[vertices.length];
+      for (int i = 0; i < vertices.length; i++) {
+        distances[i] = context.distances[vertices[i]];
+      }
+      return new Neighbourhood(vertices, distances);
+    } finally {
+      contexts.release(context);
     }
+  }
 
-    fibonacciHeap.decreaseKey(vertices[s], 0);
+  /**
+   * Settles every vertex reachable from s, adding vertices to the heap when first reached.
+   * @param s       Source vertex.
+   * @param context Context in its initial state, holds distances and predecessors afterwards.
+   */
+  void search(int s, DijkstraContext context) {
+    search(s, context, NO_TARGET, Integer.MAX_VALUE, Integer.MAX_VALUE);
+  }
 
-    while (!fibonacciHeap.isEmpty()) {
-      Vertex p = fibonacciHeap.peekMin();
-      fibonacciHeap.popMin();
+  /**
+   * Settles vertices in order of distance from s until a bound is met. Vertices enter the heap
+   * when first reached, so the work depends on the region explored, not the size of the graph.
+   * Only settled vertices, listed in context.settled, have final distances and predecessors.
+   * @param s       Source vertex.
+   * @param context Context in its initial state.
+   * @param target  Vertex to stop at once settled, or NO_TARGET.
+   * @param radius  Largest distance to settle.
+   * @param limit   Largest number of vertices to settle.
+   */
+  void search(int s, DijkstraContext context, int target, int radius, int limit) {
+    assert(context.noReached() == 0);
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    int[] weights = graph.weights;
+    int[] distances = context.distances;
+    IndexedFibonacciHeap heap = context.heap;
+    context.reach(s, 0, DijkstraContext.NO_PREDECESSOR);
+    heap.insert(s, 0);
 
-      System.out.println("visiting "+p.getKey());
+    while (!heap.isEmpty() && context.noSettled() < limit) {
+      int p = heap.peekMin();
+      int distance = distances[p];
+      if (distance > radius) {
+        return;
+      }
+      heap.popMin();
+      context.settle(p);
+      if (p == target) {
+        return;
+      }
+      for (int e = offsets[p]; e < offsets[p + 1]; e++) {
+        int to = targets[e];
+        int candidate = saturatedAdd(distance, weights[e]);
+        // settled vertices have distances at most distance, so they are skipped here too
+        if (candidate >= distances[to]) {
+          continue;
+        }
+        if (distances[to] == Integer.MAX_VALUE) {
+          heap.insert(to, candidate);
+        } else {
+          heap.decreaseKey(to, candidate);
+        }
+        context.reach(to, candidate, p);
+      }
+    }
+  }
 
-      for (Vertex.Edge edge : p.getNeighbours()) {
-        if (edge.to.getKey() > p.getKey() + edge.weight) {
-          fibonacciHeap.decreaseKey(edge.to, p.getKey() + edge.weight);
+  /**
+   * Computes the distances from s using any addressable heap keyed by vertex index,
+   * so the priority queue can be chosen to suit the graph.
+   * @param s    Source vertex.
+   * @param heap Empty heap with capacity for all vertices.
+   * @return Distances from s, Integer.MAX_VALUE for unreachable vertices.
+   */
+  int[] computeShortestPaths(int s, AddressableHeap heap) {
+    assert(heap.isEmpty());
+    int noVertices = graph.noVertices();
+    for (int v = 0; v < noVertices; v++) {
+      heap.insert(v, v == s ? 0 : Integer.MAX_VALUE);
+    }
+
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    int[] weights = graph.weights;
+    int[] distances = new int[noVertices];
+    while (!heap.isEmpty()) {
+      int p = heap.peekMin();
+      int distance = heap.getKey(p);
+      heap.popMin();
+      distances[p] = distance;
+      if (distance == Integer.MAX_VALUE) {
+        // the rest is unreachable
+        continue;
+      }
+
+      for (int e = offsets[p]; e < offsets[p + 1]; e++) {
+        int to = targets[e];
+        int candidate = saturatedAdd(distance, weights[e]);
+        if (heap.contains(to) && heap.getKey(to) > candidate) {
+          heap.decreaseKey(to, candidate);
         }
       }
     }
+    return distances;
+  }
 
-    for (Vertex v : vertices)
-      System.out.print(v.getKey() + " ");
-    System.out.println();
+  /**
+   * Computes the distances from s without decreaseKey: every relaxation pushes a new
+   * (distance, vertex) pair into a packed array heap, and pairs of vertices that were settled
+   * by an earlier pair are skipped when popped. This avoids cascading cuts and per-vertex heap
+   * state, which often wins on sparse graphs.
+   * @param s       Source vertex.
+   * @param compact True to drop stale pairs whenever they outnumber the live ones,
+   *                bounding the heap by about twice the frontier.
+   * @return Distances from s, Integer.MAX_VALUE for unreachable vertices.
+   */
+  int[] computeShortestPathsLazy(int s, boolean compact) {
+    int noVertices = graph.noVertices();
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    int[] weights = graph.weights;
+    int[] distances = new int[noVertices];
+    Arrays.fill(distances, Integer.MAX_VALUE);
+    boolean[] settled = new boolean[noVertices];
+    PackedPairHeap heap = new PackedPairHeap();
+    distances[s] = 0;
+    heap.push(0, s);
+    // vertices reached but not settled, each has exactly one pair that is not stale
+    int live = 1;
+
+    while (!heap.isEmpty()) {
+      int p = heap.peekValue();
+      heap.pop();
+      if (settled[p]) {
+        continue;
+      }
+      settled[p] = true;
+      live--;
+      int distance = distances[p];
+
+      for (int e = offsets[p]; e < offsets[p + 1]; e++) {
+        int to = targets[e];
+        int candidate = saturatedAdd(distance, weights[e]);
+        if (candidate < distances[to]) {
+          if (distances[to] == Integer.MAX_VALUE) {
+            live++;
+          }
+          distances[to] = candidate;
+          heap.push(candidate, to);
+        }
+      }
+
+      if (compact && heap.size() > 2 * live + 16) {
+        heap.compact((key, v) -> settled[v] || key > distances[v]);
+      }
+    }
+    return distances;
+  }
 
+  // non-negative operands, so only the upper bound can be crossed
+  private static int saturatedAdd(int distance, int weight) {
+    return weight > Integer.MAX_VALUE - distance ? Integer.MAX_VALUE : distance + weight;
   }
 
 }
@@ -78,6 +270,8 @@ final class Dijkstra {
 class Tester {
   public static void main(String[] args) {
     Dijkstra graph = new Dijkstra(4, List.of(0, 0, 2, 3), List.of(1, 2, 3, 0), List.of(10, 20, 5, 15));
-    graph.computeShortestPaths(0);
+    ShortestPaths paths = graph.computeShortestPaths(0);
+    for (int v = 0; v < 4; v++)
+      System.out.println(v + ": " + paths.distanceTo(v) + " via " + Arrays.toString(paths.pathTo(v)));
   }
 }
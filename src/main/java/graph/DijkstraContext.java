@@ -0,0 +1,134 @@
+package graph;
+
+import fibonacciheap.IndexedFibonacciHeap;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Mutable state of one shortest path query: distances, predecessors and the heap over vertices.
+ * The graph itself is never written by a query, so concurrent queries each take their own
+ * context. The vertices reached by a query are recorded, so reset costs O(reached vertices)
+ * rather than O(V) and a context can be reused for many small queries on a large graph.
+ */
+final class DijkstraContext {
+
+  static final int NO_PREDECESSOR = -1;
+
+  // Integer.MAX_VALUE for vertices not reached
+  final int[] distances;
+  // NO_PREDECESSOR for the source and for vertices not reached
+  final int[] predecessors;
+  final IndexedFibonacciHeap heap;
+  // vertices popped from the heap, in order of distance
+  final int[] settled;
+
+  private final int[] reached;
+  private int noReached;
+  private int noSettled;
+
+  /**
+   * @param noVertices Number of vertices of the graph to query.
+   */
+  DijkstraContext(int noVertices) {
+    distances = new int[noVertices];
+    predecessors = new int[noVertices];
+    heap = new IndexedFibonacciHeap(noVertices);
+    settled = new int[noVertices];
+    reached = new int[noVertices];
+    Arrays.fill(distances, Integer.MAX_VALUE);
+    Arrays.fill(predecessors, NO_PREDECESSOR);
+  }
+
+  /**
+   * Records a shorter path to v.
+   * @param v           Vertex.
+   * @param distance    New distance of v, less than Integer.MAX_VALUE and the current one.
+   * @param predecessor Previous vertex on the path, or NO_PREDECESSOR.
+   */
+  void reach(int v, int distance, int predecessor) {
+    assert(distance < distances[v]);
+    if (distances[v] == Integer.MAX_VALUE) {
+      reached[noReached++] = v;
+    }
+    distances[v] = distance;
+    predecessors[v] = predecessor;
+  }
+
+  /**
+   * Records that the distance of v is final.
+   * @param v Vertex popped from the heap.
+   */
+  void settle(int v) {
+    settled[noSettled++] = v;
+  }
+
+  /**
+   * @return Number of vertices settled since the last reset.
+   */
+  int noSettled() {
+    return noSettled;
+  }
+
+  /**
+   * @return Number of vertices reached since the last reset.
+   */
+  int noReached() {
+    return noReached;
+  }
+
+  /**
+   * Restores the state of a new context, in time linear in the number of vertices reached.
+   */
+  void reset() {
+    for (int i = 0; i < noReached; i++) {
+      int v = reached[i];
+      distances[v] = Integer.MAX_VALUE;
+      predecessors[v] = NO_PREDECESSOR;
+    }
+    noReached = 0;
+    noSettled = 0;
+    heap.clear();
+  }
+
+  /**
+   * Thread-safe pool of contexts for one graph. Contexts are created on demand, so the pool
+   * grows to the number of queries that ran at the same time and no further.
+   */
+  static final class Pool {
+    private final int noVertices;
+    private final ConcurrentLinkedQueue<DijkstraContext> idle = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param noVertices Number of vertices of the graph to query.
+     */
+    Pool(int noVertices) {
+      this.noVertices = noVertices;
+    }
+
+    /**
+     * @return Context in its initial state, owned by the caller until released.
+     */
+    DijkstraContext acquire() {
+      DijkstraContext context = idle.poll();
+      return context != null ? context : new DijkstraContext(noVertices);
+    }
+
+    /**
+     * Resets the context and returns it to the pool, the caller must not use it afterwards.
+     * @param context Context acquired from this pool.
+     */
+    void release(DijkstraContext context) {
+      context.reset();
+      idle.offer(context);
+    }
+
+    /**
+     * @return Number of contexts waiting to be acquired.
+     */
+    int noIdle() {
+      return idle.size();
+    }
+  }
+
+}
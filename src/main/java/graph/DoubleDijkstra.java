@@ -0,0 +1,70 @@
+package graph;
+
+import fibonacciheap.DoubleIndexedFibonacciHeap;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra's algorithm with double weights and distances, specialized by hand so that the hot
+ * loop neither boxes nor allocates.
+ * Unreachable vertices have distance Double.POSITIVE_INFINITY, which sums cannot exceed.
+ */
+final class DoubleDijkstra {
+
+  private final CsrGraph graph;
+
+  /**
+   * @param noVertices Number of vertices.
+   * @param from       Sources of edges.
+   * @param to         Targets of edges.
+   * @param weights    Non-negative weights of edges, not NaN.
+   */
+  DoubleDijkstra(int noVertices, int[] from, int[] to, double[] weights) {
+    this(CsrGraph.fromEdges(noVertices, from, to, weights));
+  }
+
+  /**
+   * @param graph Graph with double weights.
+   */
+  DoubleDijkstra(CsrGraph graph) {
+    assert(graph.isDoubleWeighted());
+    this.graph = graph;
+  }
+
+  /**
+   * @param s Source vertex.
+   * @return Distances from s, Double.POSITIVE_INFINITY for unreachable vertices.
+   */
+  double[] computeShortestPaths(int s) {
+    int noVertices = graph.noVertices();
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    double[] weights = graph.doubleWeights;
+    double[] distances = new double[noVertices];
+    Arrays.fill(distances, Double.POSITIVE_INFINITY);
+    DoubleIndexedFibonacciHeap heap = new DoubleIndexedFibonacciHeap(noVertices);
+    distances[s] = 0;
+    heap.insert(s, 0);
+
+    while (!heap.isEmpty()) {
+      int p = heap.popMin();
+      double distance = distances[p];
+      for (int e = offsets[p]; e < offsets[p + 1]; e++) {
+        int to = targets[e];
+        double candidate = distance + weights[e];
+        // settled vertices have distances at most distance, so they are skipped here too
+        if (candidate >= distances[to]) {
+          continue;
+        }
+        if (distances[to] == Double.POSITIVE_INFINITY) {
+          heap.insert(to, candidate);
+        } else {
+          heap.decreaseKey(to, candidate);
+        }
+        distances[to] = candidate;
+      }
+    }
+    return distances;
+  }
+
+}
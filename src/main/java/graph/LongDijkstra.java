@@ -0,0 +1,73 @@
+package graph;
+
+import fibonacciheap.LongIndexedFibonacciHeap;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra's algorithm with long weights and distances, specialized by hand so that the hot loop
+ * neither boxes nor allocates.
+ * Unreachable vertices have distance UNREACHABLE and sums saturate there instead of overflowing.
+ */
+final class LongDijkstra {
+
+  static final long UNREACHABLE = Long.MAX_VALUE;
+
+  private final CsrGraph graph;
+
+  /**
+   * @param noVertices Number of vertices.
+   * @param from       Sources of edges.
+   * @param to         Targets of edges.
+   * @param weights    Non-negative weights of edges.
+   */
+  LongDijkstra(int noVertices, int[] from, int[] to, long[] weights) {
+    this(CsrGraph.fromEdges(noVertices, from, to, weights));
+  }
+
+  /**
+   * @param graph Graph with long weights.
+   */
+  LongDijkstra(CsrGraph graph) {
+    assert(graph.isLongWeighted());
+    this.graph = graph;
+  }
+
+  /**
+   * @param s Source vertex.
+   * @return Distances from s, UNREACHABLE for unreachable vertices.
+   */
+  long[] computeShortestPaths(int s) {
+    int noVertices = graph.noVertices();
+    int[] offsets = graph.offsets;
+    int[] targets = graph.targets;
+    long[] weights = graph.longWeights;
+    long[] distances = new long[noVertices];
+    Arrays.fill(distances, UNREACHABLE);
+    LongIndexedFibonacciHeap heap = new LongIndexedFibonacciHeap(noVertices);
+    distances[s] = 0;
+    heap.insert(s, 0);
+
+    while (!heap.isEmpty()) {
+      int p = heap.popMin();
+      long distance = distances[p];
+      for (int e = offsets[p]; e < offsets[p + 1]; e++) {
+        int to = targets[e];
+        long weight = weights[e];
+        long candidate = weight > UNREACHABLE - distance ? UNREACHABLE : distance + weight;
+        // settled vertices have distances at most distance, so they are skipped here too
+        if (candidate >= distances[to]) {
+          continue;
+        }
+        if (distances[to] == UNREACHABLE) {
+          heap.insert(to, candidate);
+        } else {
+          heap.decreaseKey(to, candidate);
+        }
+        distances[to] = candidate;
+      }
+    }
+    return distances;
+  }
+
+}
@@ -0,0 +1,44 @@
+package graph;
+
+/**
+ * Vertices settled by a bounded search, in order of distance from its source.
+ */
+final class Neighbourhood {
+
+  private final int[] vertices;
+  private final int[] distances;
+
+  /**
+   * @param vertices  Vertices in order of distance.
+   * @param distances Distances of vertices, non-decreasing.
+   */
+  Neighbourhood(int[] vertices, int[] distances) {
+    assert(vertices.length == distances.length);
+    this.vertices = vertices;
+    this.distances = distances;
+  }
+
+  /**
+   * @return Number of vertices.
+   */
+  int size() {
+    return vertices.length;
+  }
+
+  /**
+   * @param i Rank by distance, 0 is the source.
+   * @return Vertex of rank i.
+   */
+  int vertex(int i) {
+    return vertices[i];
+  }
+
+  /**
+   * @param i Rank by distance, 0 is the source.
+   * @return Distance of the vertex of rank i.
+   */
+  int distance(int i) {
+    return distances[i];
+  }
+
+}
@@ -0,0 +1,50 @@
+package graph;
+
+/**
+ * Shortest path between two vertices.
+ */
+final class Path {
+
+  private static final Path UNREACHABLE = new Path(Integer.MAX_VALUE, new int[0]);
+
+  private final int distance;
+  private final int[] vertices;
+
+  /**
+   * @param distance Total weight of the path.
+   * @param vertices Vertices from source to target inclusive.
+   */
+  Path(int distance, int[] vertices) {
+    this.distance = distance;
+    this.vertices = vertices;
+  }
+
+  /**
+   * @return Path to a target that cannot be reached, with no vertices.
+   */
+  static Path unreachable() {
+    return UNREACHABLE;
+  }
+
+  /**
+   * @return True if the target can be reached.
+   */
+  boolean exists() {
+    return distance != Integer.MAX_VALUE;
+  }
+
+  /**
+   * @return Total weight of the path, Integer.MAX_VALUE if the target cannot be reached.
+   */
+  int distance() {
+    return distance;
+  }
+
+  /**
+   * @return Copy of the vertices from source to target inclusive.
+   */
+  int[] vertices() {
+    return vertices.clone();
+  }
+
+}
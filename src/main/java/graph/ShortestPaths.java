@@ -0,0 +1,94 @@
+package graph;
+
+/**
+ * Shortest paths from one source: the distance of every vertex and its predecessor in the
+ * shortest path tree, each in a primitive array indexed by vertex.
+ */
+final class ShortestPaths {
+
+  static final int UNREACHABLE = Integer.MAX_VALUE;
+
+  private final int source;
+  private final int[] distances;
+  private final int[] predecessors;
+
+  /**
+   * @param source       Source vertex.
+   * @param distances    Distances from source, UNREACHABLE for unreachable vertices.
+   * @param predecessors Previous vertex on the shortest path to each vertex,
+   *                     DijkstraContext.NO_PREDECESSOR for the source and unreachable vertices.
+   */
+  ShortestPaths(int source, int[] distances, int[] predecessors) {
+    assert(distances.length == predecessors.length);
+    this.source = source;
+    this.distances = distances;
+    this.predecessors = predecessors;
+  }
+
+  int source() {
+    return source;
+  }
+
+  /**
+   * @param v Vertex.
+   * @return Distance from source to v, UNREACHABLE if v is unreachable.
+   */
+  int distanceTo(int v) {
+    return distances[v];
+  }
+
+  /**
+   * @param v Vertex.
+   * @return True if there is a path from source to v.
+   */
+  boolean isReachable(int v) {
+    return distances[v] != UNREACHABLE;
+  }
+
+  /**
+   * @param v Vertex.
+   * @return Previous vertex on the shortest path to v,
+   *         DijkstraContext.NO_PREDECESSOR for the source and unreachable vertices.
+   */
+  int predecessorOf(int v) {
+    return predecessors[v];
+  }
+
+  /**
+   * Reconstructs a shortest path by following predecessors, in O(path length).
+   * @param target Vertex.
+   * @return Vertices of the path from source to target inclusive, empty if target is unreachable.
+   */
+  int[] pathTo(int target) {
+    if (!isReachable(target)) {
+      return new int[0];
+    }
+    return tracePath(predecessors, source, target);
+  }
+
+  /**
+   * @param predecessors Predecessors of a shortest path tree.
+   * @param source       Root of the tree.
+   * @param target       Vertex in the tree.
+   * @return Vertices of the path from source to target inclusive.
+   */
+  static int[] tracePath(int[] predecessors, int source, int target) {
+    int length = 1;
+    for (int v = target; v != source; v = predecessors[v]) {
+      length++;
+    }
+    int[] path = new int[length];
+    for (int v = target, i = length - 1; i >= 0; v = predecessors[v], i--) {
+      path[i] = v;
+    }
+    return path;
+  }
+
+  /**
+   * @return Copy of the distances of all vertices.
+   */
+  int[] distances() {
+    return distances.clone();
+  }
+
+}
@@ -1,9 +1,28 @@
 package tree;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.concurrent.Executor;
 
 public class BTree<K extends Comparable<K>, V> {
 
@@ -24,7 +43,7 @@ public class BTree<K extends Comparable<K>, V> {
      * Makes copy of the parameters so subLists can be provided as arguments.
      */
     private BNode(List<K> keys, List<V> values, List<BNode> children, int size, BNode parent) {
-      this.keys = new ArrayList<>(keys);
+      this.keys = keyFormat.newKeyList(keys);
       this.values = new ArrayList<>(values);
       this.children = new ArrayList<>(children);
       this.size = size;
@@ -91,9 +110,26 @@ public class BTree<K extends Comparable<K>, V> {
      */
     V find(K key) {
       int pos = findPos(key);
+      if (pos < size && keys.get(pos).compareTo(key) == 0) {
+        return values.get(pos);
+      }
       return children.get(pos).find(key);
     }
 
+    /**
+     * Default implementation, overridden for leaf nodes.
+     *
+     * @param key Lookup key.
+     * @return True if key is in subtree, also if its value is null.
+     */
+    boolean contains(K key) {
+      int pos = findPos(key);
+      if (pos < size && keys.get(pos).compareTo(key) == 0) {
+        return true;
+      }
+      return children.get(pos).contains(key);
+    }
+
     /**
      * @return Minimum node in subtree.
      */
@@ -117,6 +153,9 @@ public class BTree<K extends Comparable<K>, V> {
      * TODO: check what happens with duplicate keys.
      */
     int findPos(K key) {
+      if (keys instanceof CompressedKeyList) {
+        return ((CompressedKeyList<K>) keys).findPos(key);
+      }
       int left = 0, right = size;
       while (left < right) {
         int mid = (right + left) / 2;
@@ -164,22 +203,23 @@ public class BTree<K extends Comparable<K>, V> {
         parent.pullFromChild(keys.get(t - 1), values.get(t - 1), left, right);
         return parent;
       } else {
-        assert (root == this);
         // We are splitting the root node, create new root node.
-        root = new BNode( // Should be ordinary node, not leaf, use explicit BNode constructor!
+        BNode newRoot = new BNode( // Should be ordinary node, not leaf, use explicit BNode constructor!
             List.of(keys.get(t - 1)),
-            List.of(values.get(t - 1)),
+            Collections.singletonList(values.get(t - 1)),
             List.of(left, right),
             1,
             null);
-        left.parent = root;
-        right.parent = root;
+        left.parent = newRoot;
+        right.parent = newRoot;
         // TODO: for development null this instance
         this.size = -1;
         this.keys = null;
         this.values = null;
         this.children = null;
-        return root;
+        // Leave a pointer to the new root for the tree to follow, see updateRoot().
+        this.parent = newRoot;
+        return newRoot;
       }
     }
 
@@ -260,9 +300,21 @@ public class BTree<K extends Comparable<K>, V> {
         return expand();
       }
 
+      assert (children.get(leftPos).size == t - 1 && children.get(leftPos + 1).size == t - 1);
+      fuseChildren(leftPos);
+      return this;
+    }
+
+    /**
+     * Merge children of this node together with the entry between them, provided they fit into one node.
+     * Unlike mergeChildren this does not require the children to be minimal and never expands this node.
+     *
+     * @param leftPos Position of left child, it is merged with its right neighbour.
+     */
+    void fuseChildren(int leftPos) {
       BNode left = this.children.get(leftPos);
       BNode right = this.children.get(leftPos + 1);
-      assert (left.size == t - 1 && right.size == t - 1);
+      assert (left.size + right.size < 2 * t - 1);
       left.keys.add(this.keys.get(leftPos));
       this.keys.remove(leftPos);
       left.keys.addAll(right.keys);
@@ -278,18 +330,16 @@ public class BTree<K extends Comparable<K>, V> {
         }
       }
       this.size--;
-      left.size = 2 * t - 1;
-      // If root has run out of entries change it to its only child.
+      left.size += right.size + 1;
+      // If root has run out of entries its only child becomes the root, see updateRoot().
       if (parent == null && size == 0) {
-        root = left;
-        root.parent = null;
+        left.parent = null;
       }
       // TODO: for development null right
       right.size = -1;
       right.keys = null;
       right.values = null;
       right.children = null;
-      return this;
     }
 
     /**
@@ -305,9 +355,22 @@ public class BTree<K extends Comparable<K>, V> {
         return expand();
       }
 
+      assert (children.get(leftPos).size > t - 1 || children.get(leftPos + 1).size > t - 1);
+      evenOutChildren(leftPos, moreToRight);
+      return this;
+    }
+
+    /**
+     * Redistribute neighbouring nodes to equal parts.
+     * Unlike redistributeChildren this never expands this node, and either child may be underfull
+     * as long as together they hold enough entries for two nodes.
+     *
+     * @param leftPos     Position of left child, it is redistributed with its right neighbour.
+     * @param moreToRight If true the right node gets the extra entry of an odd total, if false the left.
+     */
+    void evenOutChildren(int leftPos, boolean moreToRight) {
       BNode left = this.children.get(leftPos);
       BNode right = this.children.get(leftPos + 1);
-      assert (left.size > t - 1 || right.size > t - 1);
       // Dump all keys, values, children into a temporary list.
       List<K> allKeys = new ArrayList<>(left.keys);
       allKeys.add(this.keys.get(leftPos));
@@ -323,9 +386,9 @@ public class BTree<K extends Comparable<K>, V> {
       left.size = newLeftSize;
       right.size = newRightSize;
 
-      left.keys = new ArrayList<>(allKeys.subList(0, left.size));
+      left.keys = keyFormat.newKeyList(allKeys.subList(0, left.size));
       this.keys.set(leftPos, allKeys.get(left.size));
-      right.keys = new ArrayList<>(allKeys.subList(left.size + 1, left.size + right.size + 1));
+      right.keys = keyFormat.newKeyList(allKeys.subList(left.size + 1, left.size + right.size + 1));
 
       left.values = new ArrayList<>(allValues.subList(0, left.size));
       this.values.set(leftPos, allValues.get(left.size));
@@ -343,8 +406,6 @@ public class BTree<K extends Comparable<K>, V> {
           child.parent = right;
         }
       }
-
-      return this;
     }
 
     @Override
@@ -434,13 +495,19 @@ public class BTree<K extends Comparable<K>, V> {
     @Override
     V find(K key) {
       int pos = findPos(key);
-      if (keys.get(pos) == key) {
+      if (pos < size && keys.get(pos).compareTo(key) == 0) {
         return values.get(pos);
       } else {
         return null;
       }
     }
 
+    @Override
+    boolean contains(K key) {
+      int pos = findPos(key);
+      return pos < size && keys.get(pos).compareTo(key) == 0;
+    }
+
     @Override
     BNode minimumNode() {
       if (size == 0) {
@@ -464,29 +531,383 @@ public class BTree<K extends Comparable<K>, V> {
 
   }
 
+  /**
+   * In-order cursor over the entries of the tree.
+   * Keeps the path from the root as a stack of (node, position) frames. The top frame points to the
+   * current entry, every other frame holds the index of the child being visited.
+   * The tree must not be modified while a cursor is in use.
+   */
+  class Cursor {
+
+    private final List<BNode> nodes = new ArrayList<>();
+    private int[] positions = new int[8];
+    private int depth = 0;
+
+    /**
+     * Creates cursor positioned at the minimum entry, or an exhausted cursor for an empty tree.
+     */
+    Cursor() {
+      if (root.size > 0) {
+        pushLeftmost(root);
+      }
+    }
+
+    /**
+     * @return True if the cursor points to an entry, false if it has run past the maximum.
+     */
+    boolean isValid() {
+      return depth > 0;
+    }
+
+    K key() {
+      return nodes.get(depth - 1).keys.get(positions[depth - 1]);
+    }
+
+    V value() {
+      return nodes.get(depth - 1).values.get(positions[depth - 1]);
+    }
+
+    /**
+     * Moves to the successor entry.
+     */
+    void next() {
+      BNode node = nodes.get(depth - 1);
+      int pos = positions[depth - 1];
+      positions[depth - 1] = pos + 1;
+      if (node instanceof BTree.BLeafNode) {
+        settle();
+      } else {
+        pushLeftmost(node.children.get(pos + 1));
+      }
+    }
+
+    /**
+     * Moves to the first entry of the next leaf in order.
+     */
+    void nextLeaf() {
+      if (leaf() != null) {
+        positions[depth - 1] = nodes.get(depth - 1).size;
+        settle();
+      }
+      if (isValid()) {
+        next();
+      }
+    }
+
+    /**
+     * @return Leaf of the current entry, or null if the cursor is exhausted or at an internal entry.
+     */
+    BNode leaf() {
+      if (depth == 0 || !(nodes.get(depth - 1) instanceof BTree.BLeafNode)) {
+        return null;
+      }
+      return nodes.get(depth - 1);
+    }
+
+    /**
+     * Moves forward to the first entry with key not smaller than target, does nothing if the current
+     * entry already qualifies.
+     * Climbs only as far as needed and descends with binary search, so subtrees that lie entirely
+     * between the current entry and target are skipped without being visited.
+     *
+     * @param target Key to seek to.
+     */
+    void seek(K target) {
+      if (depth == 0 || key().compareTo(target) >= 0) {
+        return;
+      }
+      // Climb while the rest of the top frame's subtree and its upper bound are smaller than target.
+      while (depth > 1) {
+        BNode parent = nodes.get(depth - 2);
+        int childPos = positions[depth - 2];
+        if (childPos < parent.size && parent.keys.get(childPos).compareTo(target) >= 0) {
+          break;
+        }
+        pop();
+      }
+      BNode node = nodes.get(depth - 1);
+      while (true) {
+        int pos = node.findPos(target);
+        positions[depth - 1] = pos;
+        if (node instanceof BTree.BLeafNode || (pos < node.size && node.keys.get(pos).compareTo(target) == 0)) {
+          break;
+        }
+        node = node.children.get(pos);
+        push(node);
+      }
+      settle();
+    }
+
+    private void push(BNode node) {
+      if (depth == positions.length) {
+        positions = Arrays.copyOf(positions, 2 * depth);
+      }
+      if (nodes.size() == depth) {
+        nodes.add(node);
+      } else {
+        nodes.set(depth, node);
+      }
+      positions[depth++] = 0;
+    }
+
+    private void pop() {
+      nodes.set(--depth, null);
+    }
+
+    private void pushLeftmost(BNode node) {
+      push(node);
+      while (!(node instanceof BTree.BLeafNode)) {
+        node = node.children.get(0);
+        push(node);
+      }
+    }
+
+    /**
+     * Pops frames whose node has been exhausted, so that the top frame points to an entry again.
+     */
+    private void settle() {
+      while (depth > 0 && positions[depth - 1] >= nodes.get(depth - 1).size) {
+        pop();
+      }
+    }
+
+  }
+
+  /**
+   * Callback of a merge-join, called once for each key present in both trees.
+   *
+   * @param <K> Type of keys.
+   * @param <V> Type of values in the left tree.
+   * @param <W> Type of values in the right tree.
+   */
+  @FunctionalInterface
+  public interface JoinConsumer<K, V, W> {
+    void accept(K key, V value, W otherValue);
+  }
+
+  /**
+   * Iterator over the entries in a key range, optionally prefetching the leaves ahead of it.
+   * A scout cursor runs the given number of leaves ahead of the scan: whenever the scan enters a new
+   * leaf, the scout moves to the next leaf and requests it from the prefetcher through the executor,
+   * so loading leaves overlaps with processing entries.
+   */
+  private class RangeScan implements Iterator<Map.Entry<K, V>> {
+
+    private final Cursor cursor = new Cursor();
+    private final K to;
+    private final Cursor scout; // null if not prefetching
+    private final Executor executor;
+    private final LeafPrefetcher<? super K> prefetcher;
+    private BNode currentLeaf;
+
+    RangeScan(K from, K to, int prefetchDistance, Executor executor, LeafPrefetcher<? super K> prefetcher) {
+      this.to = to;
+      this.executor = executor;
+      this.prefetcher = prefetcher;
+      cursor.seek(from);
+      if (prefetcher != null && prefetchDistance > 0) {
+        scout = new Cursor();
+        scout.seek(from);
+        currentLeaf = cursor.leaf();
+        for (int i = 0; i < prefetchDistance; i++) {
+          prefetchNextLeaf();
+        }
+      } else {
+        scout = null;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return cursor.isValid() && cursor.key().compareTo(to) < 0;
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<>(cursor.key(), cursor.value());
+      cursor.next();
+      if (scout != null) {
+        BNode leaf = cursor.leaf();
+        if (leaf != null && leaf != currentLeaf) {
+          currentLeaf = leaf;
+          prefetchNextLeaf();
+        }
+      }
+      return entry;
+    }
+
+    private void prefetchNextLeaf() {
+      scout.nextLeaf();
+      BNode leaf = scout.leaf();
+      if (leaf == null || leaf.keys.get(0).compareTo(to) >= 0) {
+        return;
+      }
+      // Read the keys on this thread, the tree must not be accessed by the executor.
+      K firstKey = leaf.keys.get(0);
+      K lastKey = leaf.keys.get(leaf.size - 1);
+      executor.execute(() -> prefetcher.prefetch(firstKey, lastKey));
+    }
+
+  }
+
+  /**
+   * Hook of a storage layer that loads the data of a leaf before a range scan reaches it.
+   *
+   * @param <K> Type of keys.
+   */
+  @FunctionalInterface
+  public interface LeafPrefetcher<K> {
+    /**
+     * @param firstKey Smallest key in the leaf.
+     * @param lastKey  Biggest key in the leaf.
+     */
+    void prefetch(K firstKey, K lastKey);
+  }
+
+  /**
+   * Detached subtree used while cutting and re-grafting trees, root is null for an empty subtree.
+   */
+  private class Subtree {
+    final BNode root;
+    final int height;
+
+    Subtree(BNode root, int height) {
+      this.root = root;
+      this.height = height;
+    }
+  }
+
   private final int t;
+  private final KeyFormat<K> keyFormat;
+
+  BNode root;
 
-  BNode root = this.new BLeafNode();
+  private CountingBloomFilter<K> bloomFilter; // null if disabled
+  private LookupCache<K, V> lookupCache; // null if disabled
+
+  private boolean relaxedDeletes = false;
+  private final Deque<BNode> underfull = new ArrayDeque<>(); // candidates for compaction
 
   public BTree() {
-    this.t = 2;
+    this(2);
   }
 
   public BTree(int t) {
+    this(t, KeyFormat.plain());
+  }
+
+  /**
+   * @param t         Minimum degree, non-root nodes hold between t-1 and 2t-1 entries.
+   * @param keyFormat Storage format of the keys in the nodes.
+   */
+  public BTree(int t, KeyFormat<K> keyFormat) {
     assert (t > 1);
     this.t = t;
+    this.keyFormat = keyFormat;
+    this.root = this.new BLeafNode();
   }
 
   public void insert(K key, V value) {
     root.insert(key, value);
+    updateRoot();
+    if (bloomFilter != null) {
+      bloomFilter.add(key);
+    }
+    if (lookupCache != null) {
+      lookupCache.invalidate(key);
+    }
   }
 
   public void delete(K key) {
-    root.delete(key);
+    if (relaxedDeletes) {
+      deleteRelaxed(key);
+    } else {
+      root.delete(key);
+    }
+    updateRoot();
+    if (bloomFilter != null) {
+      bloomFilter.remove(key);
+    }
+    if (lookupCache != null) {
+      lookupCache.invalidate(key);
+    }
   }
 
+  /**
+   * Find and retrieve value associated with key.
+   * If a lookup cache is enabled, hot keys are served from it without descending the tree.
+   * If a Bloom filter is enabled, most lookups of absent keys return without descending the tree.
+   *
+   * @param key Lookup key.
+   * @return Value associated with key, or null if not found.
+   */
   public V find(K key) {
-    return root.find(key);
+    V value = lookupCache == null ? null : lookupCache.get(key);
+    if (value != null) {
+      return value;
+    }
+    if (bloomFilter != null && !bloomFilter.mightContain(key)) {
+      return null;
+    }
+    value = root.find(key);
+    if (value == null) {
+      // null is also the value of present keys, which the filter rightly let through
+      if (bloomFilter != null && !root.contains(key)) {
+        bloomFilter.recordFalsePositive();
+      }
+    } else if (lookupCache != null) {
+      lookupCache.put(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Enables a bounded cache in front of find, replacing any previous one.
+   * Entries are invalidated by insert and delete of their key.
+   *
+   * @param capacity Maximum number of cached entries.
+   */
+  public void enableLookupCache(int capacity) {
+    lookupCache = new LookupCache<>(capacity);
+  }
+
+  public void disableLookupCache() {
+    lookupCache = null;
+  }
+
+  /**
+   * @return Lookup cache with its hit and miss counters, or null if disabled.
+   */
+  public LookupCache<K, V> getLookupCache() {
+    return lookupCache;
+  }
+
+  /**
+   * Enables a tree-level counting Bloom filter consulted by find, replacing any previous one.
+   * It is kept up to date by insert and delete; splits and merges do not change the set of keys.
+   *
+   * @param expectedEntries   Number of entries the filter is sized for.
+   * @param falsePositiveRate Desired false positive rate at the expected number of entries.
+   */
+  public void enableBloomFilter(int expectedEntries, double falsePositiveRate) {
+    bloomFilter = new CountingBloomFilter<>(expectedEntries, falsePositiveRate);
+    for (Cursor cursor = new Cursor(); cursor.isValid(); cursor.next()) {
+      bloomFilter.add(cursor.key());
+    }
+  }
+
+  public void disableBloomFilter() {
+    bloomFilter = null;
+  }
+
+  /**
+   * @return Bloom filter with its lookup counters, or null if disabled.
+   */
+  public CountingBloomFilter<K> getBloomFilter() {
+    return bloomFilter;
   }
 
   public V minimum() {
@@ -497,4 +918,762 @@ public class BTree<K extends Comparable<K>, V> {
     BNode maxNode = root.maximumNode();
     return maxNode.values.get(maxNode.size - 1);
   }
+
+  /**
+   * Nodes never assign the root of the tree themselves, because after splitAt or concat a node may
+   * belong to a different tree than the one it was created in. Instead the tree follows its root
+   * after the root has been split or has run out of entries.
+   */
+  private void updateRoot() {
+    while (root.parent != null) {
+      root = root.parent;
+    }
+    while (root.size == 0 && root.children.get(0) != null) {
+      root = root.children.get(0);
+    }
+  }
+
+  /**
+   * @return Number of levels in the tree, 1 if the root is a leaf.
+   */
+  int height() {
+    int height = 1;
+    for (BNode node = root; !(node instanceof BTree.BLeafNode); node = node.children.get(0)) {
+      height++;
+    }
+    return height;
+  }
+
+  // RANGE SCANS
+
+  /**
+   * @param from Smallest key to include.
+   * @param to   Key above the range, it is excluded.
+   * @return Iterator over the entries with from <= key < to in increasing key order.
+   *         The tree must not be modified while it is in use.
+   */
+  public Iterator<Map.Entry<K, V>> scan(K from, K to) {
+    return new RangeScan(from, to, 0, null, null);
+  }
+
+  /**
+   * Range scan that keeps prefetchDistance leaves ahead of the current one requested from prefetcher.
+   * The next leaves are found from the children following the current one in its ancestors.
+   *
+   * @param from             Smallest key to include.
+   * @param to               Key above the range, it is excluded.
+   * @param prefetchDistance Number of leaves to request ahead of the scan.
+   * @param executor         Executor running the prefetch requests, typically an asynchronous I/O pool.
+   * @param prefetcher       Callback loading the data of a leaf, it must not access the tree.
+   * @return Iterator over the entries with from <= key < to in increasing key order.
+   */
+  public Iterator<Map.Entry<K, V>> scan(K from, K to, int prefetchDistance, Executor executor,
+                                        LeafPrefetcher<? super K> prefetcher) {
+    return new RangeScan(from, to, prefetchDistance, executor, prefetcher);
+  }
+
+  // SET OPERATIONS
+
+  /**
+   * Streams the keys present in both trees in increasing order.
+   * The two trees are walked simultaneously; whenever one cursor is behind, it seeks forward to the
+   * other cursor's key, skipping subtrees that contain no keys of the other tree.
+   *
+   * @param other    Tree to join with.
+   * @param consumer Callback receiving each common key with the values from both trees.
+   */
+  public <W> void mergeJoin(BTree<K, W> other, JoinConsumer<? super K, ? super V, ? super W> consumer) {
+    Cursor a = this.new Cursor();
+    BTree<K, W>.Cursor b = other.new Cursor();
+    while (a.isValid() && b.isValid()) {
+      int cmp = a.key().compareTo(b.key());
+      if (cmp == 0) {
+        consumer.accept(a.key(), a.value(), b.value());
+        a.next();
+        b.next();
+      } else if (cmp < 0) {
+        a.seek(b.key());
+      } else {
+        b.seek(a.key());
+      }
+    }
+  }
+
+  /**
+   * Linear-time union, neither tree is modified.
+   *
+   * @param other Tree to unite with, must have the same key order.
+   * @return New tree with the entries of both trees, values of this tree win for common keys.
+   */
+  public BTree<K, V> union(BTree<K, V> other) {
+    List<K> keys = new ArrayList<>();
+    List<V> values = new ArrayList<>();
+    Cursor a = this.new Cursor();
+    Cursor b = other.new Cursor();
+    while (a.isValid() || b.isValid()) {
+      int cmp = !b.isValid() ? -1 : !a.isValid() ? 1 : a.key().compareTo(b.key());
+      if (cmp <= 0) {
+        keys.add(a.key());
+        values.add(a.value());
+        a.next();
+        if (cmp == 0) {
+          b.next();
+        }
+      } else {
+        keys.add(b.key());
+        values.add(b.value());
+        b.next();
+      }
+    }
+    return fromSorted(keys, values);
+  }
+
+  /**
+   * Intersection in time linear in the smaller tree, neither tree is modified.
+   *
+   * @param other Tree to intersect with.
+   * @return New tree with the entries of this tree whose key is also in other.
+   */
+  public <W> BTree<K, V> intersection(BTree<K, W> other) {
+    List<K> keys = new ArrayList<>();
+    List<V> values = new ArrayList<>();
+    mergeJoin(other, (key, value, otherValue) -> {
+      keys.add(key);
+      values.add(value);
+    });
+    return fromSorted(keys, values);
+  }
+
+  /**
+   * Linear-time difference, neither tree is modified.
+   * Ranges of other that fall between two consecutive keys of this tree are skipped.
+   *
+   * @param other Tree whose keys are removed.
+   * @return New tree with the entries of this tree whose key is not in other.
+   */
+  public <W> BTree<K, V> difference(BTree<K, W> other) {
+    List<K> keys = new ArrayList<>();
+    List<V> values = new ArrayList<>();
+    Cursor a = this.new Cursor();
+    BTree<K, W>.Cursor b = other.new Cursor();
+    while (a.isValid()) {
+      if (b.isValid()) {
+        b.seek(a.key());
+      }
+      if (!b.isValid() || a.key().compareTo(b.key()) != 0) {
+        keys.add(a.key());
+        values.add(a.value());
+      }
+      a.next();
+    }
+    return fromSorted(keys, values);
+  }
+
+  // SNAPSHOTS
+
+  private static final int SNAPSHOT_MAGIC = 0x42545331; // "BTS1"
+
+  /**
+   * Writes all entries in increasing key order: magic number, varint entry count, then each key
+   * and value as encoded by the codecs. The stream is flushed but not closed.
+   *
+   * @param out        Stream to write to.
+   * @param keyCodec   Encoding of keys.
+   * @param valueCodec Encoding of values.
+   */
+  public void writeSnapshot(OutputStream out, Codec<? super K> keyCodec, Codec<? super V> valueCodec)
+      throws IOException {
+    int n = 0;
+    for (Cursor cursor = new Cursor(); cursor.isValid(); cursor.next()) {
+      n++;
+    }
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+    data.writeInt(SNAPSHOT_MAGIC);
+    Codec.writeVarLong(n, data);
+    for (Cursor cursor = new Cursor(); cursor.isValid(); cursor.next()) {
+      keyCodec.write(cursor.key(), data);
+      valueCodec.write(cursor.value(), data);
+    }
+    data.flush();
+  }
+
+  /**
+   * Writes a snapshot to a channel, such as a FileChannel, see writeSnapshot(OutputStream, ...).
+   */
+  public void writeSnapshot(WritableByteChannel channel, Codec<? super K> keyCodec, Codec<? super V> valueCodec)
+      throws IOException {
+    writeSnapshot(Channels.newOutputStream(channel), keyCodec, valueCodec);
+  }
+
+  /**
+   * Replaces the contents of the tree with a snapshot written by writeSnapshot.
+   * Entries are streamed straight into nodes filled bottom-up, without a descent per entry,
+   * so restoring is bound by reading and decoding the stream.
+   * The snapshot may have been written by a tree with a different t.
+   *
+   * The stream is read without buffering of its own, so it is left just past the snapshot and
+   * can be read further, pass a buffered stream to avoid a read per byte.
+   *
+   * @param in         Stream positioned at the start of a snapshot, it is not closed.
+   * @param keyCodec   Encoding of keys.
+   * @param valueCodec Encoding of values.
+   * @throws IOException if the stream fails, or does not hold a valid snapshot.
+   */
+  public void readSnapshot(InputStream in, Codec<? extends K> keyCodec, Codec<? extends V> valueCodec)
+      throws IOException {
+    DataInputStream data = new DataInputStream(in);
+    if (data.readInt() != SNAPSHOT_MAGIC) {
+      throw new IOException("Not a BTree snapshot.");
+    }
+    int n = Codec.readLength(data);
+    Iterator<K> keys = new Iterator<>() {
+      private K previous = null;
+
+      @Override
+      public boolean hasNext() {
+        return true;
+      }
+
+      @Override
+      public K next() {
+        try {
+          K key = keyCodec.read(data);
+          if (previous != null && previous.compareTo(key) >= 0) {
+            throw new IOException("Snapshot keys are not in increasing order.");
+          }
+          previous = key;
+          if (bloomFilter != null) {
+            bloomFilter.add(key);
+          }
+          return key;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    };
+    Iterator<V> values = new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return true;
+      }
+
+      @Override
+      public V next() {
+        try {
+          return valueCodec.read(data);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    };
+    if (bloomFilter != null) {
+      bloomFilter.clear();
+    }
+    if (lookupCache != null) {
+      lookupCache.clear();
+    }
+    underfull.clear();
+    try {
+      buildFromSorted(keys, values, n);
+    } catch (UncheckedIOException e) {
+      root = this.new BLeafNode();
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Reads a snapshot from a channel, such as a FileChannel, see readSnapshot(InputStream, ...).
+   * The channel is read through a buffer, so it is consumed: bytes following the snapshot may
+   * have been read as well and are lost.
+   */
+  public void readSnapshot(ReadableByteChannel channel, Codec<? extends K> keyCodec,
+                           Codec<? extends V> valueCodec) throws IOException {
+    readSnapshot(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16), keyCodec, valueCodec);
+  }
+
+  // BULK LOADING
+
+  /**
+   * @param keys   Keys in strictly increasing order.
+   * @param values Values associated with keys.
+   * @return New tree with the same t as this, built bottom-up.
+   */
+  BTree<K, V> fromSorted(List<K> keys, List<V> values) {
+    BTree<K, V> tree = new BTree<>(t, keyFormat);
+    tree.buildFromSorted(keys.iterator(), values.iterator(), keys.size());
+    return tree;
+  }
+
+  /**
+   * Replaces the contents of the tree with n entries given in increasing key order.
+   * Nodes are filled directly, without descending from the root for each entry, so this is O(n).
+   * Entries are spread evenly, so every non-root node is between minimal and full.
+   *
+   * @param keys   Iterator over n keys in strictly increasing order.
+   * @param values Iterator over n values associated with the keys.
+   * @param n      Number of entries.
+   */
+  void buildFromSorted(Iterator<K> keys, Iterator<V> values, int n) {
+    // capacities[h] is the maximum number of entries in a subtree of height h: (2t)^h - 1.
+    List<Long> capacities = new ArrayList<>(List.of(0L, 2L * t - 1));
+    while (capacities.get(capacities.size() - 1) < n) {
+      capacities.add(capacities.get(capacities.size() - 1) * 2 * t + 2 * t - 1);
+    }
+    root = buildSubtree(keys, values, n, capacities.size() - 1, capacities, null);
+  }
+
+  private BNode buildSubtree(Iterator<K> keys, Iterator<V> values, int n, int height, List<Long> capacities,
+                             BNode parent) {
+    if (height == 1) {
+      BNode leaf = this.new BLeafNode();
+      leaf.parent = parent;
+      for (int i = 0; i < n; i++) {
+        leaf.keys.add(keys.next());
+        leaf.values.add(values.next());
+        leaf.children.add(null);
+      }
+      leaf.size = n;
+      return leaf;
+    }
+    // Use as few children as possible, but at least t for non-root nodes.
+    int noChildren = (int) ((n + 1 + capacities.get(height - 1)) / (capacities.get(height - 1) + 1));
+    if (parent != null) {
+      noChildren = Math.max(noChildren, t);
+    }
+    BNode node = new BNode(List.of(), List.of(), List.of(), noChildren - 1, parent);
+    for (int i = 0; i < noChildren; i++) {
+      int childEntries = (n + 1) / noChildren + (i < (n + 1) % noChildren ? 1 : 0) - 1;
+      node.children.add(buildSubtree(keys, values, childEntries, height - 1, capacities, node));
+      if (i < noChildren - 1) {
+        node.keys.add(keys.next());
+        node.values.add(values.next());
+      }
+    }
+    return node;
+  }
+
+  // SPLIT AND CONCATENATE
+
+  /**
+   * Splits the tree into the entries smaller than key and the rest in O(log n).
+   * The subtrees hanging off the root-to-leaf path of key are moved to the new trees without being
+   * visited, so the cost does not depend on the number of entries on either side.
+   * This tree is left empty.
+   *
+   * @param key Key to split at.
+   * @return List of two trees, the first with keys smaller than key, the second with the rest.
+   */
+  public List<BTree<K, V>> splitAt(K key) {
+    compact(Integer.MAX_VALUE);
+    List<Subtree> parts = split(root, height(), key);
+    root = this.new BLeafNode();
+    underfull.clear();
+    if (bloomFilter != null) {
+      bloomFilter.clear();
+    }
+    if (lookupCache != null) {
+      lookupCache.clear();
+    }
+    return List.of(treeOf(parts.get(0)), treeOf(parts.get(1)));
+  }
+
+  /**
+   * Concatenates two trees in O(log n) by grafting the shorter tree onto the spine of the taller one.
+   * Both trees are left empty.
+   *
+   * @param left  Tree whose keys are all smaller than the keys of right.
+   * @param right Tree with the same t as left.
+   * @return New tree with the entries of both trees.
+   * @throws IllegalArgumentException if t differs or the key ranges of the trees overlap.
+   */
+  public static <K extends Comparable<K>, V> BTree<K, V> concat(BTree<K, V> left, BTree<K, V> right) {
+    if (left.t != right.t) {
+      throw new IllegalArgumentException("Cannot concatenate trees with different t.");
+    }
+    left.compact(Integer.MAX_VALUE);
+    right.compact(Integer.MAX_VALUE);
+    BTree<K, V> tree = new BTree<>(left.t, left.keyFormat);
+    if (left.root.size == 0 || right.root.size == 0) {
+      tree.root = left.root.size == 0 ? right.root : left.root;
+    } else {
+      BTree<K, V>.BNode maxNode = left.root.maximumNode();
+      BTree<K, V>.BNode minNode = right.root.minimumNode();
+      K key = minNode.keys.get(0);
+      V value = minNode.values.get(0);
+      if (maxNode.keys.get(maxNode.size - 1).compareTo(key) >= 0) {
+        throw new IllegalArgumentException("Keys of left tree must be smaller than keys of right tree.");
+      }
+      // The minimum of right becomes the separator between the two trees. It is removed with a
+      // strict delete even in relaxed mode, since right's queue of underfull nodes is discarded.
+      right.root.delete(key);
+      right.updateRoot();
+      tree.root = tree.join(
+          left.subtree(left.root, left.height()),
+          key,
+          value,
+          right.subtree(right.root, right.height())).root;
+      if (tree.root == null) {
+        tree.root = tree.new BLeafNode();
+      }
+    }
+    left.root = left.new BLeafNode();
+    right.root = right.new BLeafNode();
+    for (BTree<K, V> emptied : List.of(left, right)) {
+      emptied.underfull.clear();
+      if (emptied.bloomFilter != null) {
+        emptied.bloomFilter.clear();
+      }
+      if (emptied.lookupCache != null) {
+        emptied.lookupCache.clear();
+      }
+    }
+    return tree;
+  }
+
+  /**
+   * Splits a subtree along the path of key, joining the cut pieces level by level.
+   * The height differences of consecutive joins telescope, so this is O(height).
+   *
+   * @return List of the subtrees with keys smaller than key and the rest.
+   */
+  private List<Subtree> split(BNode node, int height, K key) {
+    int pos = node.findPos(key);
+    if (node instanceof BTree.BLeafNode) {
+      return List.of(
+          subtree(new BLeafNode(
+              node.keys.subList(0, pos),
+              node.values.subList(0, pos),
+              node.children.subList(0, pos + 1),
+              pos,
+              null), 1),
+          subtree(new BLeafNode(
+              node.keys.subList(pos, node.size),
+              node.values.subList(pos, node.size),
+              node.children.subList(pos, node.size + 1),
+              node.size - pos,
+              null), 1));
+    }
+    List<Subtree> childParts = split(node.children.get(pos), height - 1, key);
+    Subtree left = childParts.get(0);
+    Subtree right = childParts.get(1);
+    if (pos > 0) {
+      left = join(piece(node, 0, pos - 1, height), node.keys.get(pos - 1), node.values.get(pos - 1), left);
+    }
+    if (pos < node.size) {
+      right = join(right, node.keys.get(pos), node.values.get(pos), piece(node, pos + 1, node.size, height));
+    }
+    return List.of(left, right);
+  }
+
+  /**
+   * @return Subtree made of the children from..to of node and the entries between them.
+   */
+  private Subtree piece(BNode node, int from, int to, int height) {
+    BNode piece = new BNode(
+        node.keys.subList(from, to),
+        node.values.subList(from, to),
+        node.children.subList(from, to + 1),
+        to - from,
+        null);
+    for (BNode child : piece.children) {
+      child.parent = piece;
+    }
+    return subtree(piece, height);
+  }
+
+  /**
+   * Joins two subtrees and an entry between them into one subtree.
+   * The root of the shorter subtree becomes the last (first) child of the node on the right (left)
+   * spine of the taller subtree one level above it, full nodes on the spine are split on the way down.
+   * If the grafted root is underfull it is fused or redistributed with its new neighbour.
+   *
+   * @param left  Subtree with keys smaller than key.
+   * @param key   Key of separating entry.
+   * @param value Value of separating entry.
+   * @param right Subtree with keys bigger than key.
+   * @return Joined subtree, cost is O(difference of heights).
+   */
+  private Subtree join(Subtree left, K key, V value, Subtree right) {
+    if (left.root == null && right.root == null) {
+      BNode leaf = this.new BLeafNode();
+      leaf.insert(key, value);
+      return subtree(leaf, 1);
+    }
+    if (left.root == null || right.root == null) {
+      Subtree tree = left.root == null ? right : left;
+      tree.root.insert(key, value);
+      BNode root = topOf(tree.root);
+      return subtree(root, root == tree.root ? tree.height : tree.height + 1);
+    }
+
+    if (left.height == right.height) {
+      BNode node = new BNode(List.of(key), Collections.singletonList(value), List.of(left.root, right.root), 1, null);
+      left.root.parent = node;
+      right.root.parent = node;
+      rebalanceChildren(node, 0);
+      return subtree(node, left.height + 1);
+    }
+    Subtree taller = left.height > right.height ? left : right;
+    BNode node;
+    if (left.height > right.height) {
+      node = left.root;
+      for (int height = left.height; ; height--) {
+        if (node.size == 2 * t - 1) {
+          BNode parent = node.split();
+          node = parent.children.get(parent.size);
+        }
+        if (height == right.height + 1) break;
+        node = node.children.get(node.size);
+      }
+      node.keys.add(key);
+      node.values.add(value);
+      node.children.add(right.root);
+      right.root.parent = node;
+      node.size++;
+      rebalanceChildren(node, node.size - 1);
+    } else {
+      node = right.root;
+      for (int height = right.height; ; height--) {
+        if (node.size == 2 * t - 1) {
+          BNode parent = node.split();
+          node = parent.children.get(0);
+        }
+        if (height == left.height + 1) break;
+        node = node.children.get(0);
+      }
+      node.keys.add(0, key);
+      node.values.add(0, value);
+      node.children.add(0, left.root);
+      left.root.parent = node;
+      node.size++;
+      rebalanceChildren(node, 0);
+    }
+    BNode root = topOf(node);
+    return subtree(root, root == taller.root ? taller.height : taller.height + 1);
+  }
+
+  /**
+   * Restores the size invariant of two neighbouring children of which at most one is underfull.
+   *
+   * @param node    Parent of the children, it is not minimal unless it is a root.
+   * @param leftPos Position of left child.
+   */
+  private void rebalanceChildren(BNode node, int leftPos) {
+    BNode left = node.children.get(leftPos);
+    BNode right = node.children.get(leftPos + 1);
+    if (left.size >= t - 1 && right.size >= t - 1) {
+      return;
+    }
+    if (left.size + right.size < 2 * t - 1) {
+      node.fuseChildren(leftPos);
+    } else {
+      node.evenOutChildren(leftPos, false);
+    }
+  }
+
+  /**
+   * @return Root of the subtree containing node, following new roots left behind by split.
+   */
+  private BNode topOf(BNode node) {
+    while (node.parent != null) {
+      node = node.parent;
+    }
+    return node;
+  }
+
+  /**
+   * Detaches node as the root of a subtree, skipping roots that have run out of entries.
+   *
+   * @param node   Root of subtree, may have no entries.
+   * @param height Height of node.
+   * @return Subtree with a non-empty root, or the empty subtree.
+   */
+  private Subtree subtree(BNode node, int height) {
+    while (node.size == 0 && !(node instanceof BTree.BLeafNode)) {
+      node = node.children.get(0);
+      height--;
+    }
+    if (node.size == 0) {
+      return new Subtree(null, 0);
+    }
+    node.parent = null;
+    return new Subtree(node, height);
+  }
+
+  private BTree<K, V> treeOf(Subtree subtree) {
+    BTree<K, V> tree = new BTree<>(t, keyFormat);
+    if (subtree.root != null) {
+      tree.root = subtree.root;
+    }
+    return tree;
+  }
+
+  // RELAXED DELETION
+
+  /**
+   * In relaxed mode delete only removes the entry and leaves nodes underfull, instead of merging and
+   * redistributing on the way down. Underfull nodes are queued and restored later by compact.
+   * Switching relaxed mode off compacts the whole queue, as strict deletes need the invariants.
+   *
+   * @param relaxed True to defer rebalancing of deletes.
+   */
+  public void setRelaxedDeletes(boolean relaxed) {
+    if (!relaxed) {
+      compact(Integer.MAX_VALUE);
+    }
+    relaxedDeletes = relaxed;
+  }
+
+  /**
+   * Restores the size invariant of queued underfull nodes, doing a bounded amount of work.
+   * Each step fuses an underfull node with a neighbour, or redistributes entries with it if they
+   * do not fit into one node, at O(t) cost. A fuse may leave the parent underfull, which is queued.
+   * Every fuse removes a node, so repeated calls reach a tree satisfying all invariants.
+   *
+   * @param maxSteps Maximum number of queued nodes to process.
+   * @return True if no underfull nodes are left.
+   */
+  public boolean compact(int maxSteps) {
+    for (int step = 0; step < maxSteps && !underfull.isEmpty(); step++) {
+      BNode node = underfull.poll();
+      // Skip nodes that have been merged away, have grown since, or have become the root.
+      if (node.size == -1 || node.size >= t - 1 || node.parent == null) {
+        continue;
+      }
+      rebalanceWithNeighbour(node);
+    }
+    updateRoot();
+    return underfull.isEmpty();
+  }
+
+  /**
+   * @return Number of queued nodes waiting for compaction, possibly including stale entries.
+   */
+  public int pendingCompactions() {
+    return underfull.size();
+  }
+
+  /**
+   * Deletes entry without rebalancing, only leaves are kept non-empty.
+   * An entry of an internal node is replaced by its successor, which is deleted from its leaf.
+   *
+   * @param key Key of entry to delete.
+   */
+  private void deleteRelaxed(K key) {
+    BNode node = root;
+    int pos = node.findPos(key);
+    while (pos == node.size || node.keys.get(pos).compareTo(key) != 0) {
+      if (node instanceof BTree.BLeafNode) {
+        throw new UnsupportedOperationException("Key to delete not found.");
+      }
+      node = node.children.get(pos);
+      pos = node.findPos(key);
+    }
+    if (!(node instanceof BTree.BLeafNode)) {
+      BNode successorNode = node.children.get(pos + 1).minimumNode();
+      node.keys.set(pos, successorNode.keys.get(0));
+      node.values.set(pos, successorNode.values.get(0));
+      node = successorNode;
+      pos = 0;
+    }
+    if (node.size == 1 && node.parent != null) {
+      K leafKey = node.keys.get(pos);
+      node = widenLeaf(node);
+      pos = node.findPos(leafKey);
+    }
+    node.keys.remove(pos);
+    node.values.remove(pos);
+    node.children.remove(node.size); // This is to make size of children consistent with invariants.
+    node.size--;
+    markIfUnderfull(node);
+  }
+
+  /**
+   * Grows a non-root leaf with a single entry so that deleting from it does not leave it empty.
+   * Fuses it with a neighbour if they fit into one node, otherwise rotates one entry from the
+   * neighbour through the parent, which touches no other node.
+   *
+   * @param leaf Leaf with one entry.
+   * @return Leaf now holding the entry of leaf.
+   */
+  private BNode widenLeaf(BNode leaf) {
+    ensureHasNeighbour(leaf);
+    if (leaf.parent == null) {
+      return leaf;
+    }
+    BNode parent = leaf.parent;
+    int childPos = parent.children.indexOf(leaf);
+    int leftPos = childPos > 0 ? childPos - 1 : 0;
+    BNode left = parent.children.get(leftPos);
+    BNode right = parent.children.get(leftPos + 1);
+    if (left.size + right.size < 2 * t - 1) {
+      parent.fuseChildren(leftPos);
+      markIfUnderfull(parent);
+      return left;
+    }
+    if (leaf == left) {
+      leaf.keys.add(parent.keys.get(leftPos));
+      leaf.values.add(parent.values.get(leftPos));
+      parent.keys.set(leftPos, right.keys.remove(0));
+      parent.values.set(leftPos, right.values.remove(0));
+    } else {
+      leaf.keys.add(0, parent.keys.get(leftPos));
+      leaf.values.add(0, parent.values.get(leftPos));
+      parent.keys.set(leftPos, left.keys.remove(left.size - 1));
+      parent.values.set(leftPos, left.values.remove(left.size - 1));
+    }
+    BNode neighbour = leaf == left ? right : left;
+    neighbour.children.remove(neighbour.size);
+    neighbour.size--;
+    leaf.children.add(null);
+    leaf.size++;
+    return leaf;
+  }
+
+  /**
+   * Fuses an underfull non-root node with a neighbour, or redistributes entries with it if they do
+   * not fit into one node.
+   *
+   * @param node Underfull node.
+   */
+  private void rebalanceWithNeighbour(BNode node) {
+    ensureHasNeighbour(node);
+    if (node.parent == null) {
+      return;
+    }
+    BNode parent = node.parent;
+    int childPos = parent.children.indexOf(node);
+    int leftPos = childPos > 0 ? childPos - 1 : 0;
+    if (parent.children.get(leftPos).size + parent.children.get(leftPos + 1).size < 2 * t - 1) {
+      parent.fuseChildren(leftPos);
+      markIfUnderfull(parent);
+    } else {
+      parent.evenOutChildren(leftPos, false);
+    }
+  }
+
+  /**
+   * Fuses may leave an internal node with no entries and a single child. Rebalances such parents
+   * bottom-up, so that node has a neighbour, or makes node the root if its parent was the root.
+   *
+   * @param node Non-root node.
+   */
+  private void ensureHasNeighbour(BNode node) {
+    BNode parent = node.parent;
+    if (parent.size > 0) {
+      return;
+    }
+    if (parent.parent == null) {
+      node.parent = null;
+      root = node;
+    } else {
+      rebalanceWithNeighbour(parent);
+    }
+  }
+
+  private void markIfUnderfull(BNode node) {
+    if (node.parent != null && node.size < t - 1) {
+      underfull.add(node);
+    }
+  }
 }
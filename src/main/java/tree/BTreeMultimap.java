@@ -0,0 +1,124 @@
+package tree;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * B-tree mapping each key to a set of values, stored as one entry per key with a posting list.
+ * Compared to one entry per (key, value) pair, keys are not repeated and the tree is shorter.
+ *
+ * @param <K> Type of keys.
+ * @param <V> Type of values, Longs are stored in primitive arrays.
+ */
+public class BTreeMultimap<K extends Comparable<K>, V extends Comparable<V>> {
+
+  private final BTree<K, Postings<V>> tree;
+  private final int spillThreshold;
+  private long size;
+
+  public BTreeMultimap() {
+    this(2, 64);
+  }
+
+  /**
+   * @param t              Minimum degree of the tree of keys.
+   * @param spillThreshold Number of values above which a posting list moves into its own B-tree.
+   */
+  public BTreeMultimap(int t, int spillThreshold) {
+    assert (spillThreshold > 0);
+    this.tree = new BTree<>(t);
+    this.spillThreshold = spillThreshold;
+  }
+
+  /**
+   * @return True if the pair was not present.
+   */
+  public boolean add(K key, V value) {
+    Postings<V> postings = tree.find(key);
+    if (postings == null) {
+      postings = new Postings<>(spillThreshold);
+      tree.insert(key, postings);
+    }
+    boolean added = postings.add(value);
+    if (added) {
+      size++;
+    }
+    return added;
+  }
+
+  /**
+   * @return True if the pair was present.
+   */
+  public boolean remove(K key, V value) {
+    Postings<V> postings = tree.find(key);
+    if (postings == null || !postings.remove(value)) {
+      return false;
+    }
+    size--;
+    if (postings.size() == 0) {
+      tree.delete(key);
+    }
+    return true;
+  }
+
+  public boolean containsEntry(K key, V value) {
+    Postings<V> postings = tree.find(key);
+    return postings != null && postings.contains(value);
+  }
+
+  /**
+   * @return Values of key in increasing order, empty if key is absent.
+   */
+  public List<V> getAll(K key) {
+    Postings<V> postings = tree.find(key);
+    return postings == null ? Collections.emptyList() : postings.toList();
+  }
+
+  /**
+   * @return Number of values of key.
+   */
+  public int count(K key) {
+    Postings<V> postings = tree.find(key);
+    return postings == null ? 0 : postings.size();
+  }
+
+  /**
+   * @return Number of (key, value) pairs.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * @param from Smallest key to include.
+   * @param to   Key above the range, it is excluded.
+   * @return Iterator over the keys with from <= key < to and their values, in increasing key order.
+   */
+  public Iterator<Map.Entry<K, List<V>>> scan(K from, K to) {
+    Iterator<Map.Entry<K, Postings<V>>> entries = tree.scan(from, to);
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return entries.hasNext();
+      }
+
+      @Override
+      public Map.Entry<K, List<V>> next() {
+        Map.Entry<K, Postings<V>> entry = entries.next();
+        return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().toList());
+      }
+    };
+  }
+
+  /**
+   * @return True if the posting list of key has moved into its own B-tree.
+   */
+  boolean isSpilled(K key) {
+    Postings<V> postings = tree.find(key);
+    return postings != null && postings.isSpilled();
+  }
+
+}
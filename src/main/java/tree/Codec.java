@@ -0,0 +1,115 @@
+package tree;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary encoding of keys or values in a tree snapshot.
+ * Variable-length types have to write their own length prefix, so that they can be read back.
+ *
+ * @param <T> Type of encoded objects.
+ */
+public interface Codec<T> {
+
+  void write(T object, DataOutput out) throws IOException;
+
+  T read(DataInput in) throws IOException;
+
+  /**
+   * @return Codec of strings as UTF-8 bytes prefixed by their varint length.
+   */
+  static Codec<String> strings() {
+    return new Codec<>() {
+      @Override
+      public void write(String object, DataOutput out) throws IOException {
+        byte[] bytes = object.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length, out);
+        out.write(bytes);
+      }
+
+      @Override
+      public String read(DataInput in) throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+      }
+    };
+  }
+
+  /**
+   * @return Codec of longs as zigzag varints, small magnitudes take few bytes.
+   */
+  static Codec<Long> longs() {
+    return new Codec<>() {
+      @Override
+      public void write(Long object, DataOutput out) throws IOException {
+        writeVarLong((object << 1) ^ (object >> 63), out);
+      }
+
+      @Override
+      public Long read(DataInput in) throws IOException {
+        long zigzag = readVarLong(in);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+      }
+    };
+  }
+
+  /**
+   * @return Codec of integers as zigzag varints, small magnitudes take few bytes.
+   */
+  static Codec<Integer> integers() {
+    return new Codec<>() {
+      @Override
+      public void write(Integer object, DataOutput out) throws IOException {
+        writeVarLong(((object << 1) ^ (object >> 31)) & 0xFFFFFFFFL, out);
+      }
+
+      @Override
+      public Integer read(DataInput in) throws IOException {
+        long zigzag = readVarLong(in);
+        if ((zigzag & ~0xFFFFFFFFL) != 0) {
+          throw new IOException("Malformed int " + Long.toUnsignedString(zigzag) + ".");
+        }
+        return ((int) zigzag >>> 1) ^ -((int) zigzag & 1);
+      }
+    };
+  }
+
+  /**
+   * Writes an unsigned long in groups of 7 bits, least significant first, high bit set if more follow.
+   */
+  static void writeVarLong(long value, DataOutput out) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  /**
+   * Reads a varint length or count, as written by writeVarLong.
+   * @throws IOException if the value is negative or does not fit an int.
+   */
+  static int readLength(DataInput in) throws IOException {
+    long length = readVarLong(in);
+    if (length < 0 || length > Integer.MAX_VALUE) {
+      throw new IOException("Malformed length " + length + ".");
+    }
+    return (int) length;
+  }
+
+  static long readVarLong(DataInput in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = in.readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint.");
+  }
+
+}
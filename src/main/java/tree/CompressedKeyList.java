@@ -0,0 +1,26 @@
+package tree;
+
+import java.util.AbstractList;
+
+/**
+ * Sorted list of keys in a compressed representation that can be searched without decompressing.
+ * Elements are decompressed by get, so it should be avoided on hot paths.
+ *
+ * @param <K> Type of keys.
+ */
+abstract class CompressedKeyList<K> extends AbstractList<K> {
+
+  /**
+   * @param key Key to check position of.
+   * @return Position of the smallest key not smaller than argument, same as BNode.findPos.
+   */
+  abstract int findPos(K key);
+
+  @Override
+  public K set(int index, K key) {
+    K old = remove(index);
+    add(index, key);
+    return old;
+  }
+
+}
@@ -0,0 +1,127 @@
+package tree;
+
+import java.util.Arrays;
+
+/**
+ * Counting Bloom filter over keys, answering "definitely absent" or "maybe present".
+ * Each bit of a classic Bloom filter is replaced by a small counter so that keys can be removed.
+ * A counter that saturates is never decremented again, which can only cause false positives.
+ *
+ * @param <K> Type of keys, hashed by hashCode.
+ */
+public class CountingBloomFilter<K> {
+
+  private static final int SATURATED = 0xFF;
+
+  private final byte[] counters;
+  private final int noHashes;
+
+  private long lookups;
+  private long negatives;
+  private long falsePositives;
+
+  /**
+   * @param expectedEntries   Number of keys the filter is sized for.
+   * @param falsePositiveRate Desired probability of a false positive at the expected number of keys.
+   */
+  public CountingBloomFilter(int expectedEntries, double falsePositiveRate) {
+    if (expectedEntries <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException("Invalid Bloom filter parameters.");
+    }
+    double ln2 = Math.log(2);
+    int size = (int) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+    counters = new byte[Math.max(size, 8)];
+    noHashes = Math.max(1, (int) Math.round((double) counters.length / expectedEntries * ln2));
+  }
+
+  public void add(K key) {
+    long hash = hash(key);
+    for (int i = 0; i < noHashes; i++) {
+      int slot = slot(hash, i);
+      if ((counters[slot] & 0xFF) != SATURATED) {
+        counters[slot]++;
+      }
+    }
+  }
+
+  /**
+   * @param key Key previously added, removing other keys causes false negatives.
+   */
+  public void remove(K key) {
+    long hash = hash(key);
+    for (int i = 0; i < noHashes; i++) {
+      int slot = slot(hash, i);
+      int count = counters[slot] & 0xFF;
+      if (count != SATURATED && count != 0) {
+        counters[slot]--;
+      }
+    }
+  }
+
+  /**
+   * @return False if key has definitely not been added, true if it may have been.
+   */
+  public boolean mightContain(K key) {
+    lookups++;
+    long hash = hash(key);
+    for (int i = 0; i < noHashes; i++) {
+      if (counters[slot(hash, i)] == 0) {
+        negatives++;
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Records that a lookup for which mightContain returned true found no key.
+   */
+  void recordFalsePositive() {
+    falsePositives++;
+  }
+
+  public void clear() {
+    Arrays.fill(counters, (byte) 0);
+  }
+
+  /**
+   * @return Number of mightContain calls.
+   */
+  public long getLookups() {
+    return lookups;
+  }
+
+  /**
+   * @return Number of lookups answered as definitely absent.
+   */
+  public long getNegatives() {
+    return negatives;
+  }
+
+  /**
+   * @return Number of lookups answered as maybe present for an absent key.
+   */
+  public long getFalsePositives() {
+    return falsePositives;
+  }
+
+  /**
+   * Double hashing: the i-th slot is h1 + i * h2, both taken from one 64-bit mix of hashCode.
+   */
+  private int slot(long hash, int i) {
+    int combined = (int) hash + i * (int) (hash >>> 32);
+    return (combined & Integer.MAX_VALUE) % counters.length;
+  }
+
+  private static long hash(Object key) {
+    // Finalizer of MurmurHash3, spreads the bits of hashCode over 64 bits.
+    long h = key.hashCode();
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+}
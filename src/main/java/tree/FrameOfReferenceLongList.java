@@ -0,0 +1,133 @@
+package tree;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Sorted longs stored as the minimum (the frame of reference) and unsigned offsets from it.
+ * Offsets are packed little-endian into a byte buffer using 1, 2, 4 or 8 bytes each,
+ * whichever the range of the node needs, and are widened when a key outside the range arrives.
+ * Unlike delta encoding between neighbours, offsets can be binary searched directly.
+ */
+final class FrameOfReferenceLongList extends CompressedKeyList<Long> {
+
+  private long base;
+  private int width = 1; // bytes per offset
+  private byte[] data;
+  private int size;
+
+  FrameOfReferenceLongList(Collection<? extends Long> keys) {
+    if (!keys.isEmpty()) {
+      long min = keys.iterator().next();
+      long max = min;
+      for (long key : keys) max = key;
+      base = min;
+      width = widthOf(max - min);
+    }
+    data = new byte[Math.max(4, keys.size()) * width];
+    for (long key : keys) {
+      write(size++, key - base);
+    }
+  }
+
+  @Override
+  public Long get(int index) {
+    checkIndex(index, size);
+    return base + read(index);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void add(int index, Long key) {
+    checkIndex(index, size + 1);
+    if (size == 0) {
+      base = key;
+    } else if (key < base) {
+      reencode(key, Math.max(width, widthOf(base + read(size - 1) - key)));
+    } else if (Long.compareUnsigned(key - base, maxOffset(width)) > 0) {
+      reencode(base, widthOf(key - base));
+    }
+    if ((size + 1) * width > data.length) {
+      data = Arrays.copyOf(data, 2 * (size + 1) * width);
+    }
+    System.arraycopy(data, index * width, data, (index + 1) * width, (size - index) * width);
+    write(index, key - base);
+    size++;
+    modCount++;
+  }
+
+  @Override
+  public Long remove(int index) {
+    Long key = get(index);
+    System.arraycopy(data, (index + 1) * width, data, index * width, (size - index - 1) * width);
+    size--;
+    modCount++;
+    return key;
+  }
+
+  @Override
+  int findPos(Long key) {
+    if (size == 0 || key < base) {
+      return 0;
+    }
+    long offset = key - base;
+    int left = 0, right = size;
+    while (left < right) {
+      int mid = (right + left) / 2;
+      if (Long.compareUnsigned(read(mid), offset) < 0) {
+        left = mid + 1;
+      } else {
+        right = mid;
+      }
+    }
+    return left;
+  }
+
+  private void reencode(long newBase, int newWidth) {
+    long[] keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = base + read(i);
+    }
+    base = newBase;
+    width = newWidth;
+    data = new byte[Math.max(4, 2 * size) * width];
+    for (int i = 0; i < size; i++) {
+      write(i, keys[i] - base);
+    }
+  }
+
+  private long read(int index) {
+    long offset = 0;
+    for (int b = width - 1, from = index * width; b >= 0; b--) {
+      offset = (offset << 8) | (data[from + b] & 0xFF);
+    }
+    return offset;
+  }
+
+  private void write(int index, long offset) {
+    for (int b = 0, from = index * width; b < width; b++) {
+      data[from + b] = (byte) offset;
+      offset >>>= 8;
+    }
+  }
+
+  private static int widthOf(long offset) {
+    int bytes = (64 - Long.numberOfLeadingZeros(offset) + 7) / 8;
+    return bytes <= 1 ? 1 : bytes <= 2 ? 2 : bytes <= 4 ? 4 : 8;
+  }
+
+  private static long maxOffset(int width) {
+    return width == 8 ? -1L : (1L << (8 * width)) - 1;
+  }
+
+  private static void checkIndex(int index, int bound) {
+    if (index < 0 || index >= bound) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+    }
+  }
+
+}
@@ -0,0 +1,46 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Storage format of the keys of a B-node.
+ * Compressed formats trade some work on modification for more keys per byte,
+ * and they let findPos binary search the compressed form directly.
+ *
+ * @param <K> Type of keys.
+ */
+@FunctionalInterface
+public interface KeyFormat<K> {
+
+  /**
+   * @param keys Keys in increasing order.
+   * @return New mutable list holding the keys.
+   */
+  List<K> newKeyList(Collection<? extends K> keys);
+
+  /**
+   * @return Format storing keys as they are in an ArrayList.
+   */
+  static <K> KeyFormat<K> plain() {
+    return ArrayList::new;
+  }
+
+  /**
+   * @return Format storing the longest common prefix of the keys of a node once,
+   *         and only the suffixes of the keys in a shared character buffer.
+   */
+  static KeyFormat<String> prefixCompressed() {
+    return PrefixCompressedStringList::new;
+  }
+
+  /**
+   * @return Format storing the minimum key of a node, and the offsets of the keys from it
+   *         in as few bytes per key as the range of the node requires.
+   */
+  static KeyFormat<Long> frameOfReference() {
+    return FrameOfReferenceLongList::new;
+  }
+
+}
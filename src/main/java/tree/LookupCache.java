@@ -0,0 +1,172 @@
+package tree;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded read-through cache of lookups with a W-TinyLFU-like policy.
+ * New entries go to a small LRU window. An entry evicted from the window is only admitted into the
+ * main LRU region if it has been looked up more often than the entry it would evict from there.
+ * Lookup frequencies are estimated by a count-min sketch of 4-bit counters, packed two per byte,
+ * that are halved periodically, so the history ages and the sketch takes a few bytes per cached
+ * entry.
+ *
+ * @param <K> Type of keys.
+ * @param <V> Type of values.
+ */
+public class LookupCache<K, V> {
+
+  private static final int DEPTH = 4;
+  private static final int MAX_COUNT = 15;
+
+  private final int windowCapacity;
+  private final int mainCapacity;
+  private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+  private final LinkedHashMap<K, V> main = new LinkedHashMap<>(16, 0.75f, true);
+
+  // counter i is the low (even i) or high (odd i) nibble of counters[i / 2]
+  private final byte[] counters;
+  // counters per row, a power of two
+  private final int width;
+  private final int sampleSize;
+  private int additions;
+
+  private long hits;
+  private long misses;
+
+  /**
+   * @param capacity Maximum number of cached entries, at least 2.
+   */
+  public LookupCache(int capacity) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("Cache capacity must be at least 2.");
+    }
+    windowCapacity = Math.max(1, capacity / 100);
+    mainCapacity = capacity - windowCapacity;
+    width = Integer.highestOneBit(2 * capacity - 1);
+    counters = new byte[(DEPTH * width + 1) / 2];
+    sampleSize = 10 * capacity;
+  }
+
+  /**
+   * Looks up a key and records the access in the frequency sketch.
+   *
+   * @return Cached value, or null on a miss.
+   */
+  V get(K key) {
+    recordAccess(key);
+    V value = window.get(key);
+    if (value == null) {
+      value = main.get(key);
+    }
+    if (value != null) {
+      hits++;
+    } else {
+      misses++;
+    }
+    return value;
+  }
+
+  /**
+   * Adds the value found for a missed key.
+   */
+  void put(K key, V value) {
+    window.put(key, value);
+    if (window.size() <= windowCapacity) {
+      return;
+    }
+    Map.Entry<K, V> candidate = window.entrySet().iterator().next();
+    window.remove(candidate.getKey());
+    if (main.size() < mainCapacity) {
+      main.put(candidate.getKey(), candidate.getValue());
+      return;
+    }
+    Map.Entry<K, V> victim = main.entrySet().iterator().next();
+    if (frequency(candidate.getKey()) > frequency(victim.getKey())) {
+      main.remove(victim.getKey());
+      main.put(candidate.getKey(), candidate.getValue());
+    }
+  }
+
+  void invalidate(K key) {
+    window.remove(key);
+    main.remove(key);
+  }
+
+  void clear() {
+    window.clear();
+    main.clear();
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * @return Fraction of lookups served from the cache, 0 if there were none.
+   */
+  public double hitRate() {
+    return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+  }
+
+  /**
+   * @return Number of cached entries.
+   */
+  public int size() {
+    return window.size() + main.size();
+  }
+
+  private void recordAccess(K key) {
+    int hash = spread(key.hashCode());
+    for (int row = 0; row < DEPTH; row++) {
+      int slot = slot(hash, row);
+      if (counter(slot) < MAX_COUNT) {
+        // adds one to the nibble of slot, which cannot carry as it is below MAX_COUNT
+        counters[slot >> 1] += 1 << ((slot & 1) << 2);
+      }
+    }
+    if (++additions == sampleSize) {
+      // Age the history so that keys which used to be hot can be evicted.
+      for (int i = 0; i < counters.length; i++) {
+        // halves both nibbles, dropping the bit shifted from the high into the low one
+        counters[i] = (byte) ((counters[i] & 0xFF) >>> 1 & 0x77);
+      }
+      additions /= 2;
+    }
+  }
+
+  /**
+   * @return Estimated number of recent lookups of key, the minimum of its counters.
+   */
+  int frequency(K key) {
+    int hash = spread(key.hashCode());
+    int frequency = MAX_COUNT;
+    for (int row = 0; row < DEPTH; row++) {
+      frequency = Math.min(frequency, counter(slot(hash, row)));
+    }
+    return frequency;
+  }
+
+  private int counter(int slot) {
+    return (counters[slot >> 1] >> ((slot & 1) << 2)) & 0xF;
+  }
+
+  private int slot(int hash, int row) {
+    int rowHash = spread(hash + row * 0x9E3779B9);
+    return row * width + (rowHash & (width - 1));
+  }
+
+  private static int spread(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+}
@@ -0,0 +1,172 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Posting list of the distinct values of one key in a BTreeMultimap, kept in increasing order.
+ * Small lists are stored inline in a sorted array, a primitive long[] if the values are Longs.
+ * A list that grows beyond the spill threshold moves into its own B-tree, so that the nodes of the
+ * multimap stay small and adding or removing a value stays O(log n).
+ *
+ * @param <V> Type of values.
+ */
+final class Postings<V extends Comparable<V>> {
+
+  private final int spillThreshold;
+
+  private long[] longs; // inline Long values, or null
+  private Object[] objects; // inline values of other types, or null
+  private BTree<V, Boolean> spilled; // or null
+  private int size;
+
+  Postings(int spillThreshold) {
+    this.spillThreshold = spillThreshold;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isSpilled() {
+    return spilled != null;
+  }
+
+  /**
+   * @return True if value was not present.
+   */
+  boolean add(V value) {
+    if (spilled != null) {
+      if (spilled.find(value) != null) {
+        return false;
+      }
+      spilled.insert(value, Boolean.TRUE);
+      size++;
+      return true;
+    }
+    if (size == 0 && longs == null && objects == null) {
+      if (value instanceof Long) {
+        longs = new long[4];
+      } else {
+        objects = new Object[4];
+      }
+    }
+    int pos = search(value);
+    if (pos >= 0) {
+      return false;
+    }
+    pos = -pos - 1;
+    if (size == spillThreshold) {
+      spill();
+      return add(value);
+    }
+    if (longs != null) {
+      if (size == longs.length) {
+        longs = Arrays.copyOf(longs, 2 * size);
+      }
+      System.arraycopy(longs, pos, longs, pos + 1, size - pos);
+      longs[pos] = (Long) value;
+    } else {
+      if (size == objects.length) {
+        objects = Arrays.copyOf(objects, 2 * size);
+      }
+      System.arraycopy(objects, pos, objects, pos + 1, size - pos);
+      objects[pos] = value;
+    }
+    size++;
+    return true;
+  }
+
+  /**
+   * @return True if value was present.
+   */
+  boolean remove(V value) {
+    if (spilled != null) {
+      if (spilled.find(value) == null) {
+        return false;
+      }
+      spilled.delete(value);
+      size--;
+      return true;
+    }
+    int pos = search(value);
+    if (pos < 0) {
+      return false;
+    }
+    if (longs != null) {
+      System.arraycopy(longs, pos + 1, longs, pos, size - pos - 1);
+    } else {
+      System.arraycopy(objects, pos + 1, objects, pos, size - pos - 1);
+      objects[size - 1] = null;
+    }
+    size--;
+    return true;
+  }
+
+  boolean contains(V value) {
+    if (spilled != null) {
+      return spilled.find(value) != null;
+    }
+    return search(value) >= 0;
+  }
+
+  /**
+   * @return Values in increasing order.
+   */
+  @SuppressWarnings("unchecked")
+  List<V> toList() {
+    List<V> values = new ArrayList<>(size);
+    if (spilled != null) {
+      for (BTree<V, Boolean>.Cursor cursor = spilled.new Cursor(); cursor.isValid(); cursor.next()) {
+        values.add(cursor.key());
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        values.add(longs != null ? (V) (Long) longs[i] : (V) objects[i]);
+      }
+    }
+    return Collections.unmodifiableList(values);
+  }
+
+  /**
+   * Binary search of the inline array.
+   *
+   * @return Position of value, or (-(insertion point) - 1) if absent, like Arrays.binarySearch.
+   */
+  @SuppressWarnings("unchecked")
+  private int search(V value) {
+    if (longs != null) {
+      return Arrays.binarySearch(longs, 0, size, (Long) value);
+    }
+    int left = 0, right = size;
+    while (left < right) {
+      int mid = (right + left) / 2;
+      int cmp = ((V) objects[mid]).compareTo(value);
+      if (cmp == 0) {
+        return mid;
+      } else if (cmp < 0) {
+        left = mid + 1;
+      } else {
+        right = mid;
+      }
+    }
+    return -left - 1;
+  }
+
+  /**
+   * Moves the inline values into a B-tree built bottom-up, Longs with frame-of-reference keys.
+   */
+  @SuppressWarnings("unchecked")
+  private void spill() {
+    KeyFormat<V> format = longs != null ? (KeyFormat<V>) (KeyFormat<?>) KeyFormat.frameOfReference()
+                                        : KeyFormat.plain();
+    List<V> values = toList();
+    spilled = new BTree<>(16, format);
+    spilled.buildFromSorted(values.iterator(), Collections.nCopies(size, Boolean.TRUE).iterator(), size);
+    longs = null;
+    objects = null;
+  }
+
+}
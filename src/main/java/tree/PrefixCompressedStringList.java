@@ -0,0 +1,179 @@
+package tree;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Sorted strings stored as their longest common prefix and the suffixes after it.
+ * Suffixes are packed into one character buffer, so a key costs an int offset and its
+ * suffix characters instead of a String object.
+ * As the keys are sorted, the common prefix of all keys is the common prefix of the first and last.
+ */
+final class PrefixCompressedStringList extends CompressedKeyList<String> {
+
+  private String prefix = "";
+  private char[] chars;
+  private int[] ends; // suffix i is chars[ends[i-1]..ends[i]), with ends[-1] = 0
+  private int size;
+
+  PrefixCompressedStringList(Collection<? extends String> keys) {
+    chars = new char[16];
+    ends = new int[Math.max(4, keys.size())];
+    if (!keys.isEmpty()) {
+      String first = keys.iterator().next();
+      String last = first;
+      for (String key : keys) last = key;
+      prefix = first.substring(0, commonPrefixLength(first, last));
+    }
+    for (String key : keys) {
+      appendSuffix(key, prefix.length());
+    }
+  }
+
+  @Override
+  public String get(int index) {
+    checkIndex(index, size);
+    int start = start(index);
+    return prefix.concat(new String(chars, start, ends[index] - start));
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void add(int index, String key) {
+    checkIndex(index, size + 1);
+    if (size == 0) {
+      prefix = key;
+    } else if (!key.startsWith(prefix)) {
+      shortenPrefix(commonPrefixLength(prefix, key));
+    }
+    int length = key.length() - prefix.length();
+    int start = start(index);
+    ensureCapacity(length);
+    System.arraycopy(chars, start, chars, start + length, used() - start);
+    key.getChars(prefix.length(), key.length(), chars, start);
+    System.arraycopy(ends, index, ends, index + 1, size - index);
+    ends[index] = start;
+    size++;
+    for (int i = index; i < size; i++) {
+      ends[i] += length;
+    }
+    modCount++;
+  }
+
+  @Override
+  public String remove(int index) {
+    String key = get(index);
+    int start = start(index);
+    int length = ends[index] - start;
+    System.arraycopy(chars, ends[index], chars, start, used() - ends[index]);
+    System.arraycopy(ends, index + 1, ends, index, size - index - 1);
+    size--;
+    for (int i = index; i < size; i++) {
+      ends[i] -= length;
+    }
+    modCount++;
+    return key;
+  }
+
+  @Override
+  int findPos(String key) {
+    int common = commonPrefixLength(prefix, key);
+    if (common < prefix.length()) {
+      // All keys start with prefix, key diverges from it or is a proper prefix of it.
+      return common < key.length() && key.charAt(common) > prefix.charAt(common) ? size : 0;
+    }
+    int left = 0, right = size;
+    while (left < right) {
+      int mid = (right + left) / 2;
+      if (compareSuffix(mid, key, prefix.length()) < 0) {
+        left = mid + 1;
+      } else {
+        right = mid;
+      }
+    }
+    return left;
+  }
+
+  /**
+   * Compares suffix at index with key from offset on, like String.compareTo.
+   */
+  private int compareSuffix(int index, String key, int offset) {
+    int start = start(index);
+    int length = ends[index] - start;
+    int keyLength = key.length() - offset;
+    for (int i = 0; i < Math.min(length, keyLength); i++) {
+      char c = chars[start + i];
+      char k = key.charAt(offset + i);
+      if (c != k) {
+        return c - k;
+      }
+    }
+    return length - keyLength;
+  }
+
+  /**
+   * Moves the characters dropped from the end of prefix to the front of each suffix.
+   */
+  private void shortenPrefix(int newLength) {
+    String dropped = prefix.substring(newLength);
+    char[] old = chars;
+    int[] oldEnds = Arrays.copyOf(ends, size);
+    chars = new char[Math.max(16, old.length + size * dropped.length())];
+    int oldStart = 0, used = 0;
+    for (int i = 0; i < size; i++) {
+      dropped.getChars(0, dropped.length(), chars, used);
+      used += dropped.length();
+      System.arraycopy(old, oldStart, chars, used, oldEnds[i] - oldStart);
+      used += oldEnds[i] - oldStart;
+      oldStart = oldEnds[i];
+      ends[i] = used;
+    }
+    prefix = prefix.substring(0, newLength);
+  }
+
+  private void appendSuffix(String key, int offset) {
+    int length = key.length() - offset;
+    ensureCapacity(length);
+    key.getChars(offset, key.length(), chars, used());
+    ends[size] = used() + length;
+    size++;
+  }
+
+  private void ensureCapacity(int extraChars) {
+    if (used() + extraChars > chars.length) {
+      chars = Arrays.copyOf(chars, Math.max(2 * chars.length, used() + extraChars));
+    }
+    if (size == ends.length) {
+      ends = Arrays.copyOf(ends, 2 * size);
+    }
+  }
+
+  private int start(int index) {
+    return index == 0 ? 0 : ends[index - 1];
+  }
+
+  private int used() {
+    return size == 0 ? 0 : ends[size - 1];
+  }
+
+  private static int commonPrefixLength(String a, String b) {
+    int length = Math.min(a.length(), b.length());
+    for (int i = 0; i < length; i++) {
+      if (a.charAt(i) != b.charAt(i)) {
+        return i;
+      }
+    }
+    return length;
+  }
+
+  private static void checkIndex(int index, int bound) {
+    if (index < 0 || index >= bound) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+    }
+  }
+
+}
@@ -0,0 +1,93 @@
+package fibonacciheap;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+@RunWith(JUnit4.class)
+public class AddressableHeapTest {
+
+  private static final List<IntFunction<AddressableHeap>> HEAPS = List.of(
+      IndexedFibonacciHeap::new,
+      PairingHeap::new,
+      capacity -> new DaryHeap(capacity, 2),
+      capacity -> new DaryHeap(capacity, 4),
+      capacity -> new DaryHeap(capacity, 7),
+      RadixHeap::new);
+
+  /**
+   * Runs random operations against a reference, keeping keys monotone so radix heaps qualify.
+   */
+  private static void checkRandomOperations(AddressableHeap heap, int n, long seed) {
+    int[] reference = new int[n];
+    boolean[] present = new boolean[n];
+    int count = 0;
+    int lastPopped = 0;
+    Random random = new Random(seed);
+    for (int i = 0; i < 20000; i++) {
+      int id = random.nextInt(n);
+      int op = random.nextInt(3);
+      if (op == 0 && !present[id]) {
+        reference[id] = lastPopped + random.nextInt(1 << 16);
+        present[id] = true;
+        count++;
+        heap.insert(id, reference[id]);
+      } else if (op == 1 && present[id]) {
+        reference[id] -= random.nextInt(reference[id] - lastPopped + 1);
+        heap.decreaseKey(id, reference[id]);
+      } else if (op == 2 && count > 0) {
+        int expectedMin = Integer.MAX_VALUE;
+        for (int j = 0; j < n; j++) {
+          if (present[j]) {
+            expectedMin = Math.min(expectedMin, reference[j]);
+          }
+        }
+        int popped = heap.popMin();
+        assertThat(present[popped]).isTrue();
+        assertThat(reference[popped]).isEqualTo(expectedMin);
+        present[popped] = false;
+        count--;
+        lastPopped = expectedMin;
+      }
+      assertThat(heap.size()).isEqualTo(count);
+      assertThat(heap.contains(id)).isEqualTo(present[id]);
+    }
+  }
+
+  @Test
+  public void randomOperations_matchReference_forAllHeaps() {
+    for (IntFunction<AddressableHeap> factory : HEAPS) {
+      // ARRANGE
+      AddressableHeap heap = factory.apply(500);
+
+      // ACT & ASSERT
+      checkRandomOperations(heap, 500, 38);
+    }
+  }
+
+  @Test
+  public void popMin_throwsEmptyHeapException_forAllHeaps() {
+    for (IntFunction<AddressableHeap> factory : HEAPS) {
+      // ARRANGE
+      AddressableHeap heap = factory.apply(1);
+      heap.insert(0, 5);
+      heap.popMin();
+
+      try {
+        // ACT
+        heap.popMin();
+        assertThat(false).isTrue();
+      } catch (FibonacciHeap.EmptyHeapException e) {
+        // ASSERT
+        assertThat(heap.isEmpty()).isTrue();
+      }
+    }
+  }
+
+}
@@ -496,4 +496,306 @@ public class FibonacciHeapTest {
     }
     assertThat(list).containsExactly("b", "c");
   }
+
+  @Test
+  public void randomOperations_popInKeyOrder() {
+    // ARRANGE
+    FibonacciHeap<TestElem> heap = new FibonacciHeap<>();
+    List<TestElem> present = new ArrayList<>();
+    Random random = new Random(36);
+
+    // ACT & ASSERT
+    for (int i = 0; i < 20000; i++) {
+      int op = random.nextInt(3);
+      if (op == 0 || present.isEmpty()) {
+        TestElem elem = new TestElem(random.nextInt(1 << 20), "");
+        heap.insert(elem);
+        present.add(elem);
+      } else if (op == 1) {
+        TestElem elem = present.get(random.nextInt(present.size()));
+        heap.decreaseKey(elem, elem.getKey() - random.nextInt(1 << 18));
+      } else {
+        TestElem min = Collections.min(present, (a, b) -> Integer.compare(a.getKey(), b.getKey()));
+        assertThat(heap.peekMin().getKey()).isEqualTo(min.getKey());
+        present.remove(heap.peekMin());
+        heap.popMin();
+      }
+    }
+  }
+
+  @Test
+  public void incrementalConsolidation_popsInKeyOrder() {
+    for (int steps = 1; steps <= 3; steps++) {
+      // ARRANGE
+      FibonacciHeap<TestElem> heap = new FibonacciHeap<>();
+      heap.setIncrementalConsolidation(steps);
+      List<TestElem> present = new ArrayList<>();
+      Random random = new Random(39);
+
+      // ACT & ASSERT
+      for (int i = 0; i < 20000; i++) {
+        int op = random.nextInt(4);
+        if (op == 0 || present.isEmpty()) {
+          TestElem elem = new TestElem(random.nextInt(1 << 10), "");
+          heap.insert(elem);
+          present.add(elem);
+        } else if (op == 1) {
+          TestElem elem = present.get(random.nextInt(present.size()));
+          heap.decreaseKey(elem, elem.getKey() - random.nextInt(1 << 8));
+        } else if (op == 2) {
+          TestElem min = Collections.min(present, (a, b) -> Integer.compare(a.getKey(), b.getKey()));
+          assertThat(heap.peekMin().getKey()).isEqualTo(min.getKey());
+          present.remove(heap.peekMin());
+          heap.popMin();
+        } else {
+          TestElem elem = present.remove(random.nextInt(present.size()));
+          heap.delete(elem);
+        }
+        if (i == 10000) {
+          // switching modes keeps the heap valid
+          heap.setIncrementalConsolidation(0);
+          heap.setIncrementalConsolidation(steps);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void incrementalConsolidation_boundsWork_afterInsertBurst() {
+    // ARRANGE
+    FibonacciHeap<TestElem> heap = new FibonacciHeap<>();
+    heap.setIncrementalConsolidation(2);
+
+    // ACT
+    for (int i = 0; i < 10000; i++) {
+      heap.insert(new TestElem(10000 - i, ""));
+    }
+
+    // ASSERT
+    // every insert consolidated its own root, so popMin has no long root list to walk
+    assertThat(heap.pendingRoots()).isAtMost(1);
+    assertThat(rootList(heap).size()).isAtMost(14);
+    heap.popMin();
+    assertThat(heap.peekMin().getKey()).isEqualTo(2);
+  }
+
+  @Test
+  public void incrementalConsolidation_keepsPopMinCheap_afterSwitchingWithLongRootList() {
+    // ARRANGE
+    FibonacciHeap<TestElem> heap = new FibonacciHeap<>();
+    List<TestElem> elems = new ArrayList<>();
+    for (int i = 0; i < 100000; i++) {
+      elems.add(new TestElem((int) (i * 7919L % 100000), ""));
+    }
+    heap.insertAll(elems);
+
+    // ACT
+    heap.setIncrementalConsolidation(1);
+    heap.enableStatistics();
+
+    // ASSERT
+    assertThat(heap.pendingRoots()).isEqualTo(0);
+    for (int i = 0; i < 2000; i++) {
+      assertThat(heap.peekMin().getKey()).isEqualTo(i);
+      heap.popMin();
+    }
+    // no popMin walks the 100000 roots queued when switching
+    assertThat(heap.getStatistics().getMaxRootListLength()).isAtMost(20);
+    assertThat(heap.getStatistics().getMaxMergesPerPop()).isAtMost(20);
+    assertThat(heap.pendingRoots()).isAtMost(1);
+  }
+
+  @Test
+  public void incrementalConsolidation_insertAll_consolidatesBatch() {
+    // ARRANGE
+    FibonacciHeap<TestElem> heap = new FibonacciHeap<>();
+    heap.setIncrementalConsolidation(1);
+    List<TestElem> elems = new ArrayList<>();
+    for (int i = 0; i < 100000; i++) {
+      elems.add(new TestElem((int) (i * 7919L % 100000), ""));
+    }
+
+    // ACT
+    heap.insertAll(elems);
+
+    // ASSERT
+    assertThat(heap.pendingRoots()).isEqualTo(0);
+    assertThat(rootList(heap).size()).isAtMost(17);
+    heap.enableStatistics();
+    for (int i = 0; i < 2000; i++) {
+      assertThat(heap.peekMin().getKey()).isEqualTo(i);
+      heap.popMin();
+    }
+    assertThat(heap.getStatistics().getMaxRootListLength()).isAtMost(20);
+    assertThat(heap.getStatistics().getMaxMergesPerPop()).isAtMost(20);
+  }
+
+  @Test
+  public void incrementalConsolidation_meld_consolidatesRootsOfOther() {
+    // ARRANGE
+    FibonacciHeap<TestElem> heap = new FibonacciHeap<>();
+    heap.setIncrementalConsolidation(1);
+    heap.insert(new TestElem(-1, ""));
+    FibonacciHeap<TestElem> other = new FibonacciHeap<>();
+    for (int i = 0; i < 10000; i++) {
+      other.insert(new TestElem(10000 - i, ""));
+    }
+
+    // ACT
+    heap.meld(other);
+
+    // ASSERT
+    assertThat(heap.pendingRoots()).isEqualTo(0);
+    assertThat(rootList(heap).size()).isAtMost(14);
+    heap.popMin();
+    assertThat(heap.peekMin().getKey()).isEqualTo(1);
+  }
+
+  @Test
+  public void insertAll_splicesBatch_intoRootList() {
+    // ARRANGE
+    FibonacciHeap<TestElem> heap = new FibonacciHeap<>();
+    heap.insert(new TestElem(20, "a"));
+
+    // ACT
+    heap.insertAll(new TestElem[]{new TestElem(30, "b"), new TestElem(10, "c"), new TestElem(40, "d")});
+
+    // ASSERT
+    assertThat(heap.peekMin().handle).isEqualTo("c");
+    assertThat(rootListHandles(heap)).containsExactly("a", "b", "c", "d");
+    List<String> reversed = new ArrayList<>();
+    reversed.add(heap.peekMin().handle);
+    for (TestElem root = heap.peekMin().getLeftSibling(); root != heap.peekMin(); root = root.getLeftSibling()) {
+      reversed.add(root.handle);
+    }
+    assertThat(reversed).containsExactly("a", "b", "c", "d");
+  }
+
+  @Test
+  public void decreaseKeys_matchesSingleDecreases() {
+    // ARRANGE
+    Random random = new Random(40);
+    List<TestElem> elems = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      elems.add(new TestElem(random.nextInt(1 << 20), Integer.toString(i)));
+    }
+    FibonacciHeap<TestElem> heap = new FibonacciHeap<>();
+    heap.insertAll(elems);
+    heap.popMin();
+    List<TestElem> present = new ArrayList<>(elems);
+    present.remove(Collections.min(present, (a, b) -> Integer.compare(a.getKey(), b.getKey())));
+
+    for (int round = 0; round < 50; round++) {
+      // ACT
+      Collections.shuffle(present, random);
+      List<TestElem> batch = new ArrayList<>(present.subList(0, 20));
+      int[] newKeys = new int[batch.size()];
+      for (int i = 0; i < newKeys.length; i++) {
+        newKeys[i] = Math.min(batch.get(i).getKey(), random.nextInt(1 << 20));
+      }
+      heap.decreaseKeys(batch, newKeys);
+
+      // ASSERT
+      TestElem min = Collections.min(present, (a, b) -> Integer.compare(a.getKey(), b.getKey()));
+      assertThat(heap.peekMin().getKey()).isEqualTo(min.getKey());
+      present.remove(heap.peekMin());
+      heap.popMin();
+    }
+  }
+
+  private int countMarked(TestElem first) {
+    int marked = 0;
+    for (TestElem elem : siblingList(first)) {
+      marked += (elem.getMarked() ? 1 : 0) + (elem.getChild() == null ? 0 : countMarked(elem.getChild()));
+    }
+    return marked;
+  }
+
+  @Test
+  public void statistics_countOperationsAndWork() {
+    // ARRANGE
+    FibonacciHeap<TestElem> heap = new FibonacciHeap<>();
+    heap.enableStatistics();
+    heap.setSlowPopMinThreshold(0);
+    List<TestElem> present = new ArrayList<>();
+    Random random = new Random(41);
+
+    // ACT
+    for (int i = 0; i < 1000; i++) {
+      TestElem elem = new TestElem(random.nextInt(1 << 20), "");
+      heap.insert(elem);
+      present.add(elem);
+    }
+    for (int i = 0; i < 500; i++) {
+      present.remove(heap.peekMin());
+      heap.popMin();
+      for (int j = 0; j < 3; j++) {
+        TestElem elem = present.get(random.nextInt(present.size()));
+        heap.decreaseKey(elem, elem.getKey() - random.nextInt(1 << 16));
+      }
+    }
+
+    // ASSERT
+    FibonacciHeapStatistics statistics = heap.getStatistics();
+    assertThat(statistics.getInserts()).isEqualTo(1000);
+    assertThat(statistics.getPopMins()).isEqualTo(500);
+    assertThat(statistics.getDecreaseKeys()).isEqualTo(1500);
+    assertThat(statistics.getMaxRootListLength()).isEqualTo(999);
+    assertThat(statistics.getMerges()).isAtLeast((long) statistics.getMaxMergesPerPop());
+    assertThat(statistics.getMaxCascadeDepth()).isAtLeast(1);
+    assertThat(statistics.getMaxDegree()).isAtLeast(9);
+    assertThat(statistics.getMarkedNodes()).isEqualTo(countMarked(heap.peekMin()));
+  }
+
+  @Test
+  public void statistics_areNull_whenDisabled() {
+    // ARRANGE
+    FibonacciHeap<TestElem> heap = new FibonacciHeap<>();
+    heap.enableStatistics();
+
+    // ACT
+    heap.disableStatistics();
+    heap.insert(new TestElem(1, "a"));
+
+    // ASSERT
+    assertThat(heap.getStatistics()).isNull();
+  }
+
+  @Test
+  public void iterator_returnsKeysInOrder_withoutModifyingHeap() {
+    // ARRANGE
+    FibonacciHeap<TestElem> heap = randomHeap();
+    List<TestElem> rootsBefore = rootList(heap);
+
+    // ACT
+    List<Integer> keys = new ArrayList<>();
+    for (TestElem elem : heap) {
+      keys.add(elem.getKey());
+    }
+
+    // ASSERT
+    assertThat(keys).isInOrder();
+    assertThat(rootList(heap)).containsExactlyElementsIn(rootsBefore).inOrder();
+    List<Integer> popped = new ArrayList<>();
+    while (!heap.isEmpty()) {
+      popped.add(heap.peekMin().getKey());
+      heap.popMin();
+    }
+    assertThat(keys).containsExactlyElementsIn(popped).inOrder();
+  }
+
+  @Test
+  public void stream_isLazy() {
+    // ARRANGE
+    FibonacciHeap<TestElem> heap = randomHeap();
+    int min = heap.peekMin().getKey();
+
+    // ACT
+    List<Integer> smallest = heap.stream().limit(3).map(TestElem::getKey).collect(Collectors.toList());
+
+    // ASSERT
+    assertThat(smallest).hasSize(3);
+    assertThat(smallest.get(0)).isEqualTo(min);
+    assertThat(smallest).isInOrder();
+  }
 }
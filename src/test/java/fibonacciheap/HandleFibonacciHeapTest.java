@@ -0,0 +1,110 @@
+package fibonacciheap;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public class HandleFibonacciHeapTest {
+
+  private static List<String> drain(HandleFibonacciHeap<String> heap) {
+    List<String> payloads = new ArrayList<>();
+    while (!heap.isEmpty()) {
+      payloads.add(heap.popMin());
+    }
+    return payloads;
+  }
+
+  @Test
+  public void decreaseKey_reordersPayloads() {
+    // ARRANGE
+    HandleFibonacciHeap<String> heap = new HandleFibonacciHeap<>();
+    heap.insert(10, "a");
+    HandleFibonacciHeap.Handle<String> b = heap.insert(20, "b");
+    heap.insert(30, "c");
+
+    // ACT
+    heap.decreaseKey(b, 5);
+
+    // ASSERT
+    assertThat(heap.peekMin().getPayload()).isEqualTo("b");
+    assertThat(drain(heap)).containsExactly("b", "a", "c").inOrder();
+  }
+
+  @Test
+  public void delete_removesElement_fromInsideTree() {
+    // ARRANGE
+    HandleFibonacciHeap<String> heap = new HandleFibonacciHeap<>();
+    List<HandleFibonacciHeap.Handle<String>> handles = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      handles.add(heap.insert(i, Integer.toString(i)));
+    }
+    heap.popMin(); // consolidates into trees
+
+    // ACT
+    String removed = heap.delete(handles.get(13));
+
+    // ASSERT
+    assertThat(removed).isEqualTo("13");
+    assertThat(heap.size()).isEqualTo(18);
+    assertThat(drain(heap)).doesNotContain("13");
+  }
+
+  @Test
+  public void meld_combinesHeaps_andKeepsHandlesValid() {
+    // ARRANGE
+    HandleFibonacciHeap<String> heap = new HandleFibonacciHeap<>();
+    HandleFibonacciHeap<String> other = new HandleFibonacciHeap<>();
+    heap.insert(10, "a");
+    heap.insert(40, "d");
+    HandleFibonacciHeap.Handle<String> c = other.insert(30, "c");
+    other.insert(20, "b");
+
+    // ACT
+    heap.meld(other);
+    heap.decreaseKey(c, 1);
+
+    // ASSERT
+    assertThat(other.isEmpty()).isTrue();
+    assertThat(heap.size()).isEqualTo(4);
+    assertThat(drain(heap)).containsExactly("c", "a", "b", "d").inOrder();
+  }
+
+  @Test
+  public void meld_otherHeapIsReusable() {
+    // ARRANGE
+    HandleFibonacciHeap<String> heap = new HandleFibonacciHeap<>();
+    HandleFibonacciHeap<String> other = new HandleFibonacciHeap<>();
+    other.insert(10, "a");
+    heap.meld(other);
+
+    // ACT
+    HandleFibonacciHeap.Handle<String> b = other.insert(20, "b");
+    other.decreaseKey(b, 5);
+
+    // ASSERT
+    assertThat(drain(other)).containsExactly("b");
+    assertThat(drain(heap)).containsExactly("a");
+  }
+
+  @Test
+  public void insert_recyclesHandles() {
+    // ARRANGE
+    HandleFibonacciHeap<String> heap = new HandleFibonacciHeap<>();
+    HandleFibonacciHeap.Handle<String> first = heap.insert(1, "a");
+    heap.popMin();
+
+    // ACT
+    HandleFibonacciHeap.Handle<String> second = heap.insert(2, "b");
+
+    // ASSERT
+    assertThat(second == first).isTrue();
+    assertThat(second.getPayload()).isEqualTo("b");
+  }
+
+}
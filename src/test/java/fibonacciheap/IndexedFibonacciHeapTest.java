@@ -0,0 +1,138 @@
+package fibonacciheap;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class IndexedFibonacciHeapTest {
+
+  @Test(expected = FibonacciHeap.EmptyHeapException.class)
+  public void popMin_throws_forEmptyHeap() {
+    // ARRANGE
+    IndexedFibonacciHeap heap = new IndexedFibonacciHeap(4);
+
+    // ACT
+    heap.popMin();
+  }
+
+  @Test
+  public void popMin_returnsIdsInKeyOrder() {
+    // ARRANGE
+    IndexedFibonacciHeap heap = new IndexedFibonacciHeap(5);
+    int[] keys = {40, 10, 30, 50, 20};
+    for (int id = 0; id < keys.length; id++) {
+      heap.insert(id, keys[id]);
+    }
+
+    // ACT
+    List<Integer> ids = new ArrayList<>();
+    while (!heap.isEmpty()) {
+      ids.add(heap.popMin());
+    }
+
+    // ASSERT
+    assertThat(ids).containsExactly(1, 4, 2, 0, 3).inOrder();
+    assertThat(heap.contains(1)).isFalse();
+  }
+
+  @Test
+  public void randomOperations_matchReference() {
+    // ARRANGE
+    int n = 2000;
+    IndexedFibonacciHeap heap = new IndexedFibonacciHeap(n);
+    int[] reference = new int[n];
+    boolean[] present = new boolean[n];
+    Random random = new Random(35);
+
+    // ACT & ASSERT
+    for (int i = 0; i < 20000; i++) {
+      int id = random.nextInt(n);
+      int op = random.nextInt(3);
+      if (op == 0 && !present[id]) {
+        reference[id] = random.nextInt(1 << 20);
+        present[id] = true;
+        heap.insert(id, reference[id]);
+      } else if (op == 1 && present[id]) {
+        reference[id] -= random.nextInt(1 << 18);
+        heap.decreaseKey(id, reference[id]);
+      } else if (op == 2 && !heap.isEmpty()) {
+        int expectedMin = Integer.MAX_VALUE;
+        for (int j = 0; j < n; j++) {
+          if (present[j]) {
+            expectedMin = Math.min(expectedMin, reference[j]);
+          }
+        }
+        int popped = heap.popMin();
+        assertThat(reference[popped]).isEqualTo(expectedMin);
+        present[popped] = false;
+      }
+      int count = 0;
+      for (boolean p : present) {
+        count += p ? 1 : 0;
+      }
+      assertThat(heap.size()).isEqualTo(count);
+    }
+  }
+
+
+  @Test
+  public void clear_removesAllElements_andHeapIsReusable() {
+    // ARRANGE
+    IndexedFibonacciHeap heap = new IndexedFibonacciHeap(100);
+    for (int id = 0; id < 100; id++) {
+      heap.insert(id, (id * 37) % 100);
+    }
+    // consolidate into trees so clear has children to splice
+    heap.popMin();
+    heap.decreaseKey(50, -1);
+
+    // ACT
+    heap.clear();
+
+    // ASSERT
+    assertThat(heap.isEmpty()).isTrue();
+    assertThat(heap.size()).isEqualTo(0);
+    for (int id = 0; id < 100; id++) {
+      assertThat(heap.contains(id)).isFalse();
+    }
+    heap.insert(7, 3);
+    heap.insert(3, 1);
+    assertThat(heap.popMin()).isEqualTo(3);
+    assertThat(heap.popMin()).isEqualTo(7);
+    assertThat(heap.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void longAndDoubleHeaps_popInKeyOrder_withInfiniteKeys() {
+    // ARRANGE
+    LongIndexedFibonacciHeap longHeap = new LongIndexedFibonacciHeap(4);
+    DoubleIndexedFibonacciHeap doubleHeap = new DoubleIndexedFibonacciHeap(4);
+    long[] longKeys = {Long.MAX_VALUE, 1L << 40, -(1L << 50), 7};
+    double[] doubleKeys = {Double.POSITIVE_INFINITY, 1e300, -1e-300, 7};
+    for (int id = 0; id < 4; id++) {
+      longHeap.insert(id, longKeys[id]);
+      doubleHeap.insert(id, doubleKeys[id]);
+    }
+
+    // ACT
+    longHeap.decreaseKey(0, 5);
+    doubleHeap.decreaseKey(0, 5);
+    List<Integer> longOrder = new ArrayList<>();
+    List<Integer> doubleOrder = new ArrayList<>();
+    while (!longHeap.isEmpty()) {
+      longOrder.add(longHeap.popMin());
+      doubleOrder.add(doubleHeap.popMin());
+    }
+
+    // ASSERT
+    assertThat(longOrder).containsExactly(2, 0, 3, 1).inOrder();
+    assertThat(doubleOrder).containsExactly(2, 0, 3, 1).inOrder();
+  }
+}
@@ -0,0 +1,235 @@
+package fibonacciheap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of MultiQueue throughput and rank error under concurrent use. The queue is
+ * sized for the number of benchmark threads, so -t 1,2,4,... (or -tg for the producer/consumer
+ * group) measures thread scaling.
+ * The recorded benchmark logs every operation with a timestamp and, after each iteration,
+ * replays the logs in time order against an exact multiset of the present keys. It prints the
+ * rank error of deleteMin, i.e. the number of smaller keys present when a key is popped.
+ * A thread descheduled between an operation and its timestamp inflates the error, so the
+ * rank error is only meaningful with no more threads than cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MultiQueueBenchmark {
+
+  private static final int PREFILL = 1 << 20;
+  // operations logged per thread and iteration, later ones run without logging
+  private static final int LOG_CAPACITY = 1 << 20;
+
+  /**
+   * Number of heaps per thread, c.
+   */
+  @Param({"2", "4"})
+  public int queuesPerThread;
+
+  private MultiQueue<Integer> queue;
+  private int[] prefill;
+  private final ConcurrentLinkedQueue<Log> logs = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Operations of one thread in the recorded benchmark.
+   */
+  @State(Scope.Thread)
+  public static class Log {
+    final long[] times = new long[LOG_CAPACITY];
+    final int[] keys = new int[LOG_CAPACITY];
+    final boolean[] pops = new boolean[LOG_CAPACITY];
+    int size;
+
+    @Setup(Level.Iteration)
+    public void setUp(MultiQueueBenchmark benchmark) {
+      size = 0;
+      benchmark.logs.add(this);
+    }
+
+    void record(int key, boolean pop) {
+      if (size < LOG_CAPACITY) {
+        // after the operation returned, so a key is logged as inserted before it is popped
+        times[size] = System.nanoTime();
+        keys[size] = key;
+        pops[size++] = pop;
+      }
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void setUp(BenchmarkParams params) {
+    queue = new MultiQueue<>(params.getThreads(), queuesPerThread);
+    SplittableRandom random = new SplittableRandom(43);
+    prefill = new int[PREFILL];
+    for (int i = 0; i < PREFILL; i++) {
+      prefill[i] = random.nextInt();
+      queue.insert(prefill[i], prefill[i]);
+    }
+    logs.clear();
+  }
+
+  @TearDown(Level.Iteration)
+  public void reportRankError() {
+    if (!logs.isEmpty()) {
+      long[] error = replay(prefill, List.copyOf(logs));
+      System.out.printf("%nrank error over %d pops: mean %.2f, max %d%n", error[0],
+          (double) error[1] / Math.max(1, error[0]), error[2]);
+    }
+  }
+
+  /**
+   * Replays logged operations in time order, counting the present keys smaller than each popped
+   * one in a Fenwick tree over the distinct keys. A pop logged before the insert of its key
+   * raced with it, it cancels that insert and counts as rank 0.
+   * @return Number of pops, total and max rank error.
+   */
+  static long[] replay(int[] prefill, List<Log> logs) {
+    int noEvents = 0;
+    for (Log log : logs) {
+      noEvents += log.size;
+    }
+    long[] times = new long[noEvents];
+    int[] keys = new int[noEvents];
+    boolean[] pops = new boolean[noEvents];
+    int next = 0;
+    for (Log log : logs) {
+      System.arraycopy(log.times, 0, times, next, log.size);
+      System.arraycopy(log.keys, 0, keys, next, log.size);
+      System.arraycopy(log.pops, 0, pops, next, log.size);
+      next += log.size;
+    }
+    Integer[] order = new Integer[noEvents];
+    Arrays.setAll(order, i -> i);
+    Arrays.sort(order, Comparator.comparingLong(i -> times[i]));
+
+    int[] distinct = new int[prefill.length + noEvents];
+    System.arraycopy(prefill, 0, distinct, 0, prefill.length);
+    System.arraycopy(keys, 0, distinct, prefill.length, noEvents);
+    Arrays.sort(distinct);
+    int noDistinct = 0;
+    for (int i = 0; i < distinct.length; i++) {
+      if (i == 0 || distinct[i] != distinct[i - 1]) {
+        distinct[noDistinct++] = distinct[i];
+      }
+    }
+    long[] tree = new long[noDistinct + 1];
+    int[] counts = new int[noDistinct];
+    int[] early = new int[noDistinct];
+    for (int key : prefill) {
+      int k = Arrays.binarySearch(distinct, 0, noDistinct, key);
+      counts[k]++;
+      add(tree, k, 1);
+    }
+
+    long noPops = 0;
+    long totalRank = 0;
+    long maxRank = 0;
+    for (int i : order) {
+      int k = Arrays.binarySearch(distinct, 0, noDistinct, keys[i]);
+      if (!pops[i]) {
+        if (early[k] > 0) {
+          early[k]--;
+        } else {
+          counts[k]++;
+          add(tree, k, 1);
+        }
+        continue;
+      }
+      noPops++;
+      if (counts[k] == 0) {
+        early[k]++;
+        continue;
+      }
+      long rank = smaller(tree, k);
+      totalRank += rank;
+      maxRank = Math.max(maxRank, rank);
+      counts[k]--;
+      add(tree, k, -1);
+    }
+    return new long[]{noPops, totalRank, maxRank};
+  }
+
+  private static void add(long[] tree, int k, int delta) {
+    for (int i = k + 1; i < tree.length; i += i & -i) {
+      tree[i] += delta;
+    }
+  }
+
+  // number of present keys with index less than k
+  private static long smaller(long[] tree, int k) {
+    long sum = 0;
+    for (int i = k; i > 0; i -= i & -i) {
+      sum += tree[i];
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Integer insertAndDeleteMin() {
+    int key = ThreadLocalRandom.current().nextInt();
+    queue.insert(key, key);
+    return queue.deleteMin();
+  }
+
+  /**
+   * insertAndDeleteMin with every operation logged for the rank error, the logging costs two
+   * nanoTime calls per pair, so throughput is lower than the unrecorded benchmark.
+   */
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Integer insertAndDeleteMinRecorded(Log log) {
+    int key = ThreadLocalRandom.current().nextInt();
+    queue.insert(key, key);
+    log.record(key, false);
+    Integer popped = queue.deleteMin();
+    if (popped != null) {
+      log.record(popped, true);
+    }
+    return popped;
+  }
+
+  @Benchmark
+  @Group("producerConsumer")
+  @GroupThreads(2)
+  public void produce() {
+    int key = ThreadLocalRandom.current().nextInt();
+    queue.insert(key, key);
+  }
+
+  @Benchmark
+  @Group("producerConsumer")
+  @GroupThreads(2)
+  public Integer consume() {
+    return queue.deleteMin();
+  }
+
+}
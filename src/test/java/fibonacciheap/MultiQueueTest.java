@@ -0,0 +1,90 @@
+package fibonacciheap;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+@RunWith(JUnit4.class)
+public class MultiQueueTest {
+
+  @Test
+  public void deleteMin_isExact_withSingleQueue() {
+    // ARRANGE
+    MultiQueue<Integer> queue = new MultiQueue<>(1, 1);
+    for (int key : new int[]{30, 10, 40, 20}) {
+      queue.insert(key, key);
+    }
+
+    // ACT
+    List<Integer> popped = new ArrayList<>();
+    for (Integer key = queue.deleteMin(); key != null; key = queue.deleteMin()) {
+      popped.add(key);
+    }
+
+    // ASSERT
+    assertThat(popped).containsExactly(10, 20, 30, 40).inOrder();
+  }
+
+  @Test
+  public void deleteMin_returnsNull_whenEmpty() {
+    // ARRANGE
+    MultiQueue<String> queue = new MultiQueue<>(4, 2);
+    queue.insert(1, "a");
+    queue.deleteMin();
+
+    // ACT
+    String popped = queue.deleteMin();
+
+    // ASSERT
+    assertThat(popped).isNull();
+    assertThat(queue.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void concurrentOperations_loseAndDuplicateNothing() throws InterruptedException {
+    // ARRANGE
+    int threads = 4;
+    int perThread = 20000;
+    MultiQueue<Integer> queue = new MultiQueue<>(threads, 2);
+    ConcurrentLinkedQueue<Integer> popped = new ConcurrentLinkedQueue<>();
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int offset = t * perThread;
+      workers.add(new Thread(() -> {
+        for (int i = 0; i < perThread; i++) {
+          queue.insert(offset + i, offset + i);
+          if (i % 2 == 1) {
+            popped.add(queue.deleteMin());
+          }
+        }
+      }));
+    }
+
+    // ACT
+    for (Thread worker : workers) {
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    for (Integer key = queue.deleteMin(); key != null; key = queue.deleteMin()) {
+      popped.add(key);
+    }
+
+    // ASSERT
+    List<Integer> sorted = new ArrayList<>(popped);
+    Collections.sort(sorted);
+    assertThat(sorted).hasSize(threads * perThread);
+    for (int i = 0; i < sorted.size(); i++) {
+      assertThat(sorted.get(i)).isEqualTo(i);
+    }
+  }
+
+}
@@ -0,0 +1,60 @@
+package fibonacciheap;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class PackedPairHeapTest {
+
+  @Test
+  public void pop_returnsPairsInKeyOrder_withNegativeKeys() {
+    // ARRANGE
+    PackedPairHeap heap = new PackedPairHeap(1);
+    int[] keys = {5, -3, Integer.MAX_VALUE, Integer.MIN_VALUE, 0};
+    for (int i = 0; i < keys.length; i++) {
+      heap.push(keys[i], -i);
+    }
+
+    // ACT
+    List<Integer> values = new ArrayList<>();
+    while (!heap.isEmpty()) {
+      values.add(heap.peekValue());
+      heap.pop();
+    }
+
+    // ASSERT
+    assertThat(values).containsExactly(-3, -1, -4, 0, -2).inOrder();
+  }
+
+  @Test
+  public void compact_removesStalePairs_andKeepsHeapOrder() {
+    // ARRANGE
+    PackedPairHeap heap = new PackedPairHeap();
+    Random random = new Random(45);
+    for (int i = 0; i < 1000; i++) {
+      heap.push(random.nextInt(1000), i);
+    }
+
+    // ACT
+    int removed = heap.compact((key, value) -> value % 2 == 0);
+
+    // ASSERT
+    assertThat(removed).isEqualTo(500);
+    assertThat(heap.size()).isEqualTo(500);
+    int previous = Integer.MIN_VALUE;
+    while (!heap.isEmpty()) {
+      assertThat(heap.peekValue() % 2).isEqualTo(1);
+      assertThat(heap.peekKey()).isAtLeast(previous);
+      previous = heap.peekKey();
+      heap.pop();
+    }
+  }
+
+}
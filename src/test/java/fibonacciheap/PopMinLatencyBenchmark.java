@@ -0,0 +1,94 @@
+package fibonacciheap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the popMin latency distribution with full and incremental consolidation,
+ * on a workload of insert bursts followed by pops. The bursts run in invocation setup, so only
+ * popMin is sampled and the percentiles show the spikes that incremental consolidation spreads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PopMinLatencyBenchmark {
+
+  private static final int BURST = 20000;
+  private static final int POPS_PER_ROUND = 2000;
+  // every round grows the heap by BURST - POPS_PER_ROUND, it is rebuilt past this size
+  private static final int MAX_SIZE = 1 << 22;
+
+  static class Elem extends FibElem<Elem> {
+    Elem(int key) {
+      this.key = key;
+    }
+  }
+
+  /**
+   * Consolidation steps per operation, 0 for full consolidation.
+   */
+  @Param({"0", "2"})
+  public int steps;
+
+  private FibonacciHeap<Elem> heap;
+  private Random random;
+  private int popsLeft;
+  private int size;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    random = new Random(39);
+    newHeap();
+  }
+
+  private void newHeap() {
+    heap = new FibonacciHeap<>();
+    heap.setIncrementalConsolidation(steps);
+    popsLeft = 0;
+    size = 0;
+  }
+
+  /**
+   * Inserts a burst before every POPS_PER_ROUND pops.
+   */
+  @Setup(Level.Invocation)
+  public void refill() {
+    if (popsLeft > 0) {
+      return;
+    }
+    if (size > MAX_SIZE) {
+      newHeap();
+    }
+    for (int i = 0; i < BURST; i++) {
+      heap.insert(new Elem(random.nextInt()));
+    }
+    popsLeft = POPS_PER_ROUND;
+    size += BURST;
+  }
+
+  @Benchmark
+  public Elem popMin() {
+    popsLeft--;
+    size--;
+    Elem min = heap.peekMin();
+    heap.popMin();
+    return min;
+  }
+
+}
@@ -0,0 +1,328 @@
+package fibonacciheap;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the priority queues on a heap kept at a fixed size.
+ * Throughput and sampled latency percentiles are reported for every operation, run with
+ * -prof gc for the allocation per operation. -p size=... selects sizes, the defaults fit a
+ * default heap, larger ones such as -p size=100000000 need e.g. -jvmArgs -Xmx24g.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PriorityQueueBenchmark {
+
+  /**
+   * Operations common to the benchmarked queues, on ids 0..size-1.
+   */
+  interface Queue {
+    void insert(int id, int key);
+
+    void decreaseKey(int id, int key);
+
+    /**
+     * @return Id of popped minimum.
+     */
+    int popMin();
+  }
+
+  static class Elem extends FibElem<Elem> {
+    final int id;
+
+    Elem(int id) {
+      this.id = id;
+    }
+  }
+
+  static class FibonacciQueue implements Queue {
+    final FibonacciHeap<Elem> heap = new FibonacciHeap<>();
+    final Elem[] elems;
+
+    FibonacciQueue(int size) {
+      elems = new Elem[size];
+      for (int id = 0; id < size; id++) {
+        elems[id] = new Elem(id);
+      }
+    }
+
+    @Override
+    public void insert(int id, int key) {
+      elems[id].key = key;
+      heap.insert(elems[id]);
+    }
+
+    @Override
+    public void decreaseKey(int id, int key) {
+      heap.decreaseKey(elems[id], key);
+    }
+
+    @Override
+    public int popMin() {
+      int id = heap.peekMin().id;
+      heap.popMin();
+      return id;
+    }
+  }
+
+  static class AddressableQueue implements Queue {
+    final AddressableHeap heap;
+
+    AddressableQueue(AddressableHeap heap) {
+      this.heap = heap;
+    }
+
+    @Override
+    public void insert(int id, int key) {
+      heap.insert(id, key);
+    }
+
+    @Override
+    public void decreaseKey(int id, int key) {
+      heap.decreaseKey(id, key);
+    }
+
+    @Override
+    public int popMin() {
+      return heap.popMin();
+    }
+  }
+
+  /**
+   * java.util.PriorityQueue has no decreaseKey, so it pushes duplicates and skips stale entries,
+   * as is usual with it. Entries are boxed longs, (key, id) packed. Stale entries are dropped
+   * once they outnumber the live ones, since those with large keys may never surface.
+   */
+  static class JavaQueue implements Queue {
+    final PriorityQueue<Long> heap = new PriorityQueue<>();
+    final int[] keys;
+    final boolean[] present;
+
+    JavaQueue(int size) {
+      keys = new int[size];
+      present = new boolean[size];
+    }
+
+    @Override
+    public void insert(int id, int key) {
+      keys[id] = key;
+      present[id] = true;
+      heap.add(((long) key << 32) | id);
+    }
+
+    @Override
+    public void decreaseKey(int id, int key) {
+      keys[id] = key;
+      heap.add(((long) key << 32) | id);
+      if (heap.size() > 2 * keys.length) {
+        heap.removeIf(this::isStale);
+      }
+    }
+
+    private boolean isStale(long entry) {
+      int id = (int) entry;
+      return !present[id] || keys[id] != (int) (entry >> 32);
+    }
+
+    @Override
+    public int popMin() {
+      while (true) {
+        long entry = heap.poll();
+        if (!isStale(entry)) {
+          int id = (int) entry;
+          present[id] = false;
+          return id;
+        }
+      }
+    }
+  }
+
+  @Param({"fibonacci", "indexedFibonacci", "pairing", "dary4", "javaPriorityQueue"})
+  public String queue;
+
+  @Param({"1000", "1000000"})
+  public int size;
+
+  /**
+   * monotone: keys are never below the last popped key, as in Dijkstra's algorithm,
+   * random: keys are uniformly random.
+   */
+  @Param({"monotone", "random"})
+  public String keys;
+
+  private static final int KEY_RANGE = 1 << 20;
+  // monotone keys are shifted down by lastPopped once it passes this, so they never overflow
+  private static final int REBASE_THRESHOLD = 1 << 30;
+  // the decreaseKey benchmark pops once per this many decreases, so keys do not all reach the floor
+  private static final int DECREASES_PER_POP = 8;
+
+  /**
+   * Counts decreaseKeys that were performed and those skipped because the key was at the floor,
+   * reported next to the scores.
+   */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Counters {
+    public long decreases;
+    public long skippedDecreases;
+  }
+
+  /**
+   * Parameters of the mixed workload only, so the other benchmarks are not repeated for each.
+   */
+  @State(Scope.Benchmark)
+  public static class Mix {
+    /**
+     * Number of decreaseKeys per popMin.
+     */
+    @Param({"0", "1", "4"})
+    public int decreaseKeysPerPop;
+  }
+
+  private Queue q;
+  private int[] current;
+  private int lastPopped;
+  private SplittableRandom random;
+  private int noDecreases;
+
+  private Queue newQueue() {
+    switch (queue) {
+      case "fibonacci":
+        return new FibonacciQueue(size);
+      case "indexedFibonacci":
+        return new AddressableQueue(new IndexedFibonacciHeap(size));
+      case "pairing":
+        return new AddressableQueue(new PairingHeap(size));
+      case "dary4":
+        return new AddressableQueue(new DaryHeap(size, 4));
+      case "javaPriorityQueue":
+        return new JavaQueue(size);
+      default:
+        throw new IllegalArgumentException(queue);
+    }
+  }
+
+  private int newKey() {
+    return floor() + random.nextInt(KEY_RANGE);
+  }
+
+  /**
+   * @return Smallest key allowed.
+   */
+  private int floor() {
+    return keys.equals("monotone") ? lastPopped : 0;
+  }
+
+  /**
+   * Fills the queue with all ids, so popMin followed by an insert of the popped id keeps the
+   * size fixed.
+   */
+  @Setup(Level.Iteration)
+  public void setUp() {
+    random = new SplittableRandom(46);
+    q = newQueue();
+    current = new int[size];
+    lastPopped = 0;
+    noDecreases = 0;
+    for (int id = 0; id < size; id++) {
+      current[id] = newKey();
+      q.insert(id, current[id]);
+    }
+    // consolidate once, so that decreaseKey cuts out of trees instead of a flat root list
+    reinsert(q.popMin());
+  }
+
+  private void reinsert(int id) {
+    lastPopped = Math.max(lastPopped, current[id]);
+    current[id] = newKey();
+    if (lastPopped > REBASE_THRESHOLD) {
+      rebase();
+    } else {
+      q.insert(id, current[id]);
+    }
+  }
+
+  /**
+   * Shifts all keys down by lastPopped and rebuilds the queue with all ids, as no queue can
+   * increase keys. Monotone keys are at least lastPopped, so none goes negative. At size n
+   * this happens about once every 2^30 / (2^20 / n) pops.
+   */
+  private void rebase() {
+    q = newQueue();
+    for (int id = 0; id < size; id++) {
+      current[id] -= lastPopped;
+      assert(current[id] >= 0);
+      q.insert(id, current[id]);
+    }
+    lastPopped = 0;
+  }
+
+  @TearDown(Level.Iteration)
+  public void checkKeys() {
+    assert(lastPopped >= 0 && lastPopped <= REBASE_THRESHOLD);
+  }
+
+  private void decreaseRandomKey(Counters counters) {
+    int id = random.nextInt(size);
+    // halfway towards the smallest allowed key, so that keys keep decreasing
+    int floor = floor();
+    if (current[id] > floor) {
+      current[id] = floor + (current[id] - floor) / 2;
+      q.decreaseKey(id, current[id]);
+      counters.decreases++;
+    } else {
+      counters.skippedDecreases++;
+    }
+  }
+
+  @Benchmark
+  public int popMinAndInsert() {
+    int id = q.popMin();
+    reinsert(id);
+    return id;
+  }
+
+  /**
+   * Decreases random keys, with a popMin and insert every DECREASES_PER_POP decreases so that
+   * keys are renewed and the decreases do not run out.
+   */
+  @Benchmark
+  public void decreaseKey(Counters counters) {
+    decreaseRandomKey(counters);
+    if (++noDecreases == DECREASES_PER_POP) {
+      noDecreases = 0;
+      reinsert(q.popMin());
+    }
+  }
+
+  @Benchmark
+  public int mixed(Mix mix, Counters counters) {
+    for (int i = 0; i < mix.decreaseKeysPerPop; i++) {
+      decreaseRandomKey(counters);
+    }
+    int id = q.popMin();
+    reinsert(id);
+    return id;
+  }
+
+}
@@ -0,0 +1,44 @@
+package fibonacciheap;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@RunWith(JUnit4.class)
+public class TopKTest {
+
+  @Test
+  public void topK_returnsSmallestInOrder() {
+    // ARRANGE
+    List<Integer> items = new Random(44).ints(10000, 0, 1 << 30).boxed().collect(Collectors.toList());
+
+    // ACT
+    List<Integer> smallest = TopK.topK(items.iterator(), 10);
+
+    // ASSERT
+    assertThat(smallest).containsExactlyElementsIn(items.stream().sorted().limit(10)
+        .collect(Collectors.toList())).inOrder();
+  }
+
+  @Test
+  public void topK_returnsAll_whenFewerThanK() {
+    // ARRANGE
+    List<String> items = List.of("pear", "fig", "apple");
+
+    // ACT
+    List<String> smallest = TopK.topK(items.iterator(), 5, Comparator.comparing(String::length));
+
+    // ASSERT
+    assertThat(smallest).containsExactly("fig", "pear", "apple").inOrder();
+    assertThat(TopK.topK(IntStream.range(0, 3).iterator(), 0)).isEmpty();
+  }
+
+}
@@ -0,0 +1,136 @@
+package graph;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class CsrGraphTest {
+
+  @Test
+  public void fromEdges_groupsEdgesBySourceInInputOrder() {
+    // ARRANGE
+    int[] from = {2, 0, 2, 0, 3};
+    int[] to = {0, 1, 3, 2, 0};
+    int[] weights = {7, 1, 8, 2, 9};
+
+    // ACT
+    CsrGraph graph = CsrGraph.fromEdges(5, from, to, weights);
+
+    // ASSERT
+    assertThat(graph.noVertices()).isEqualTo(5);
+    assertThat(graph.noEdges()).isEqualTo(5);
+    assertThat(graph.offsets).asList().containsExactly(0, 2, 2, 4, 5, 5).inOrder();
+    assertThat(graph.targets).asList().containsExactly(1, 2, 0, 3, 0).inOrder();
+    assertThat(graph.weights).asList().containsExactly(1, 2, 7, 8, 9).inOrder();
+    assertThat(graph.isLongWeighted()).isFalse();
+  }
+
+  @Test
+  public void fromEdges_withLongWeights_keepsWeightsWithTheirEdges() {
+    // ARRANGE
+    int[] from = {1, 0, 1};
+    int[] to = {0, 1, 2};
+    long[] weights = {Long.MAX_VALUE, 3, 5};
+
+    // ACT
+    CsrGraph graph = CsrGraph.fromEdges(3, from, to, weights);
+
+    // ASSERT
+    assertThat(graph.isLongWeighted()).isTrue();
+    assertThat(graph.weights).isNull();
+    assertThat(graph.offsets).asList().containsExactly(0, 1, 3, 3).inOrder();
+    assertThat(graph.targets).asList().containsExactly(1, 0, 2).inOrder();
+    assertThat(graph.longWeights).asList().containsExactly(3L, Long.MAX_VALUE, 5L).inOrder();
+  }
+
+  @Test
+  public void fromEdges_withDoubleWeights_keepsWeightsWithTheirEdges() {
+    // ARRANGE
+    int[] from = {2, 0, 2};
+    int[] to = {1, 2, 0};
+    double[] weights = {0.5, Double.POSITIVE_INFINITY, 2.25};
+
+    // ACT
+    CsrGraph graph = CsrGraph.fromEdges(3, from, to, weights);
+
+    // ASSERT
+    assertThat(graph.isDoubleWeighted()).isTrue();
+    assertThat(graph.isLongWeighted()).isFalse();
+    assertThat(graph.weights).isNull();
+    assertThat(graph.offsets).asList().containsExactly(0, 1, 1, 3).inOrder();
+    assertThat(graph.targets).asList().containsExactly(2, 1, 0).inOrder();
+    assertThat(graph.doubleWeights).isEqualTo(new double[]{Double.POSITIVE_INFINITY, 0.5, 2.25});
+  }
+
+  @Test
+  public void fromEdges_manyEdges_matchesSequentialCountingSort() {
+    // ARRANGE
+    int n = 1000;
+    int m = 500_000;
+    Random random = new Random(47);
+    int[] from = new int[m];
+    int[] to = new int[m];
+    int[] weights = new int[m];
+    for (int i = 0; i < m; i++) {
+      from[i] = random.nextInt(n);
+      to[i] = random.nextInt(n);
+      // unique weights identify each edge
+      weights[i] = i;
+    }
+
+    // ACT
+    CsrGraph graph = CsrGraph.fromEdges(n, from, to, weights);
+
+    // ASSERT
+    int[] next = new int[n + 1];
+    for (int v : from) {
+      next[v + 1]++;
+    }
+    for (int v = 0; v < n; v++) {
+      next[v + 1] += next[v];
+    }
+    assertThat(graph.offsets).isEqualTo(next);
+    for (int i = 0; i < m; i++) {
+      int pos = next[from[i]]++;
+      assertThat(graph.weights[pos]).isEqualTo(i);
+      assertThat(graph.targets[pos]).isEqualTo(to[i]);
+    }
+  }
+
+  @Test
+  public void fromEdges_moreVerticesThanEdges_keepsEveryEdge() {
+    // ARRANGE
+    int n = 1 << 20;
+    int m = 200_000;
+    Random random = new Random(48);
+    int[] from = new int[m];
+    int[] to = new int[m];
+    int[] weights = new int[m];
+    for (int i = 0; i < m; i++) {
+      from[i] = random.nextInt(n);
+      to[i] = random.nextInt(n);
+      weights[i] = i;
+    }
+
+    // ACT
+    CsrGraph graph = CsrGraph.fromEdges(n, from, to, weights);
+
+    // ASSERT
+    assertThat(graph.offsets[n]).isEqualTo(m);
+    for (int v = 0; v < n; v++) {
+      for (int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++) {
+        assertThat(from[graph.weights[e]]).isEqualTo(v);
+        assertThat(to[graph.weights[e]]).isEqualTo(graph.targets[e]);
+        if (e > graph.offsets[v]) {
+          assertThat(graph.weights[e]).isGreaterThan(graph.weights[e - 1]);
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,132 @@
+package graph;
+
+import fibonacciheap.DaryHeap;
+import fibonacciheap.IndexedFibonacciHeap;
+import fibonacciheap.PairingHeap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of Dijkstra with decreaseKey on several heaps, including the query over a pooled
+ * context, against the lazy-deletion mode, with and without compaction, on graphs of different
+ * shapes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DijkstraBenchmark {
+
+  private static final int NO_VERTICES = 1 << 18;
+
+  /**
+   * sparse: random with degree 4, dense: random on V / 16 vertices with degree 64,
+   * grid: 512 x 512 with edges to the 4 neighbours.
+   */
+  @Param({"sparse", "dense", "grid"})
+  public String shape;
+
+  private Dijkstra dijkstra;
+  private int noVertices;
+
+  @Setup
+  public void setUp() {
+    switch (shape) {
+      case "sparse":
+        dijkstra = randomGraph(NO_VERTICES, 4, 45);
+        break;
+      case "dense":
+        dijkstra = randomGraph(NO_VERTICES / 16, 64, 45);
+        break;
+      case "grid":
+        dijkstra = gridGraph(512, 45);
+        break;
+      default:
+        throw new IllegalArgumentException(shape);
+    }
+  }
+
+  private Dijkstra randomGraph(int noVertices, int degree, long seed) {
+    this.noVertices = noVertices;
+    Random random = new Random(seed);
+    int noEdges = noVertices * degree;
+    int[] from = new int[noEdges], to = new int[noEdges], weights = new int[noEdges];
+    for (int e = 0; e < noEdges; e++) {
+      from[e] = e / degree;
+      to[e] = random.nextInt(noVertices);
+      weights[e] = random.nextInt(1000);
+    }
+    return new Dijkstra(CsrGraph.fromEdges(noVertices, from, to, weights));
+  }
+
+  private Dijkstra gridGraph(int side, long seed) {
+    noVertices = side * side;
+    Random random = new Random(seed);
+    int[] from = new int[4 * noVertices], to = new int[4 * noVertices];
+    int[] weights = new int[4 * noVertices];
+    int noEdges = 0;
+    for (int v = 0; v < noVertices; v++) {
+      int x = v % side, y = v / side;
+      int[][] neighbours = {{x + 1, y}, {x - 1, y}, {x, y + 1}, {x, y - 1}};
+      for (int[] n : neighbours) {
+        if (n[0] >= 0 && n[0] < side && n[1] >= 0 && n[1] < side) {
+          from[noEdges] = v;
+          to[noEdges] = n[1] * side + n[0];
+          weights[noEdges++] = 1 + random.nextInt(100);
+        }
+      }
+    }
+    return new Dijkstra(CsrGraph.fromEdges(noVertices, Arrays.copyOf(from, noEdges),
+        Arrays.copyOf(to, noEdges), Arrays.copyOf(weights, noEdges)));
+  }
+
+  @Benchmark
+  public int[] fibonacciDecreaseKey() {
+    return dijkstra.computeShortestPaths(0, new IndexedFibonacciHeap(noVertices));
+  }
+
+  @Benchmark
+  public int[] pairingDecreaseKey() {
+    return dijkstra.computeShortestPaths(0, new PairingHeap(noVertices));
+  }
+
+  @Benchmark
+  public int[] daryDecreaseKey() {
+    return dijkstra.computeShortestPaths(0, new DaryHeap(noVertices, 4));
+  }
+
+  /**
+   * decreaseKey search on the IndexedFibonacciHeap of a pooled context, which reuses the arrays
+   * of earlier queries and inserts vertices only when they are discovered.
+   */
+  @Benchmark
+  public ShortestPaths pooledFibonacciDecreaseKey() {
+    return dijkstra.computeShortestPaths(0);
+  }
+
+  @Benchmark
+  public int[] lazy() {
+    return dijkstra.computeShortestPathsLazy(0, false);
+  }
+
+  @Benchmark
+  public int[] lazyWithCompaction() {
+    return dijkstra.computeShortestPathsLazy(0, true);
+  }
+
+}
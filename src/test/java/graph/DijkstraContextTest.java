@@ -0,0 +1,67 @@
+package graph;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class DijkstraContextTest {
+
+  @Test
+  public void reset_restoresInitialState_ofReachedVertices() {
+    // ARRANGE
+    Dijkstra dijkstra = new Dijkstra(CsrGraph.fromEdges(5, new int[]{0, 1, 0, 3},
+        new int[]{1, 2, 2, 4}, new int[]{1, 1, 5, 1}));
+    DijkstraContext context = new DijkstraContext(5);
+    dijkstra.search(0, context);
+
+    // ACT
+    int noReached = context.noReached();
+    context.reset();
+
+    // ASSERT
+    assertThat(noReached).isEqualTo(3);
+    assertThat(context.noReached()).isEqualTo(0);
+    assertThat(context.heap.isEmpty()).isTrue();
+    for (int v = 0; v < 5; v++) {
+      assertThat(context.distances[v]).isEqualTo(Integer.MAX_VALUE);
+      assertThat(context.predecessors[v]).isEqualTo(DijkstraContext.NO_PREDECESSOR);
+    }
+  }
+
+  @Test
+  public void search_recordsPredecessors_onShortestPaths() {
+    // ARRANGE
+    Dijkstra dijkstra = new Dijkstra(CsrGraph.fromEdges(4, new int[]{0, 1, 0, 2},
+        new int[]{1, 2, 2, 3}, new int[]{1, 1, 5, 1}));
+    DijkstraContext context = new DijkstraContext(4);
+
+    // ACT
+    dijkstra.search(0, context);
+
+    // ASSERT
+    assertThat(context.distances).isEqualTo(new int[]{0, 1, 2, 3});
+    assertThat(context.predecessors)
+        .isEqualTo(new int[]{DijkstraContext.NO_PREDECESSOR, 0, 1, 2});
+  }
+
+  @Test
+  public void pool_reusesReleasedContexts() {
+    // ARRANGE
+    DijkstraContext.Pool pool = new DijkstraContext.Pool(3);
+    DijkstraContext first = pool.acquire();
+    first.reach(1, 4, 0);
+
+    // ACT
+    pool.release(first);
+    DijkstraContext second = pool.acquire();
+
+    // ASSERT
+    assertThat(second).isSameInstanceAs(first);
+    assertThat(second.distances[1]).isEqualTo(Integer.MAX_VALUE);
+    assertThat(pool.noIdle()).isEqualTo(0);
+  }
+
+}
@@ -0,0 +1,280 @@
+package graph;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import fibonacciheap.AddressableHeap;
+import fibonacciheap.DaryHeap;
+import fibonacciheap.IndexedFibonacciHeap;
+import fibonacciheap.PairingHeap;
+import fibonacciheap.RadixHeap;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@RunWith(JUnit4.class)
+public class DijkstraTest {
+
+  private final List<Integer> from = new ArrayList<>();
+  private final List<Integer> to = new ArrayList<>();
+  private final List<Integer> weights = new ArrayList<>();
+
+  private void randomGraph(int noVertices, int noEdges, long seed) {
+    Random random = new Random(seed);
+    for (int i = 0; i < noEdges; i++) {
+      from.add(random.nextInt(noVertices));
+      to.add(random.nextInt(noVertices));
+      weights.add(random.nextInt(1000));
+    }
+  }
+
+  private int[] bellmanFord(int noVertices, int s) {
+    int[] distances = new int[noVertices];
+    Arrays.fill(distances, Integer.MAX_VALUE);
+    distances[s] = 0;
+    for (boolean changed = true; changed; ) {
+      changed = false;
+      for (int i = 0; i < from.size(); i++) {
+        int u = from.get(i);
+        if (distances[u] != Integer.MAX_VALUE && distances[u] + weights.get(i) < distances[to.get(i)]) {
+          distances[to.get(i)] = distances[u] + weights.get(i);
+          changed = true;
+        }
+      }
+    }
+    return distances;
+  }
+
+  @Test
+  public void computeShortestPaths_matchesBellmanFord_forAllHeaps() {
+    // ARRANGE
+    int n = 300;
+    randomGraph(n, 900, 38);
+    Dijkstra dijkstra = new Dijkstra(n, from, to, weights);
+    int[] expected = bellmanFord(n, 0);
+    List<AddressableHeap> heaps = List.of(new IndexedFibonacciHeap(n), new PairingHeap(n),
+        new DaryHeap(n, 4), new RadixHeap(n));
+
+    for (AddressableHeap heap : heaps) {
+      // ACT
+      int[] distances = dijkstra.computeShortestPaths(0, heap);
+
+      // ASSERT
+      assertThat(distances).isEqualTo(expected);
+    }
+  }
+
+
+  @Test
+  public void longDijkstra_doesNotOverflow_andMarksUnreachable() {
+    // ARRANGE
+    long big = Long.MAX_VALUE / 2;
+    LongDijkstra dijkstra = new LongDijkstra(5, new int[]{0, 1, 2, 0}, new int[]{1, 2, 3, 2},
+        new long[]{big, big, big, Long.MAX_VALUE});
+
+    // ACT
+    long[] distances = dijkstra.computeShortestPaths(0);
+
+    // ASSERT
+    // 0 -> 1 -> 2 -> 3 would overflow and saturates, vertex 4 has no edges
+    assertThat(distances).isEqualTo(new long[]{0, big, 2 * big, LongDijkstra.UNREACHABLE,
+        LongDijkstra.UNREACHABLE});
+  }
+
+  @Test
+  public void longAndDoubleDijkstra_matchBellmanFord() {
+    // ARRANGE
+    int n = 300;
+    randomGraph(n, 900, 42);
+    int[] fromArray = from.stream().mapToInt(Integer::intValue).toArray();
+    int[] toArray = to.stream().mapToInt(Integer::intValue).toArray();
+    int[] expected = bellmanFord(n, 0);
+
+    // ACT
+    long[] longDistances = new LongDijkstra(n, fromArray, toArray,
+        weights.stream().mapToLong(Integer::longValue).toArray()).computeShortestPaths(0);
+    double[] doubleDistances = new DoubleDijkstra(n, fromArray, toArray,
+        weights.stream().mapToDouble(Integer::doubleValue).toArray()).computeShortestPaths(0);
+
+    // ASSERT
+    for (int v = 0; v < n; v++) {
+      if (expected[v] == Integer.MAX_VALUE) {
+        assertThat(longDistances[v]).isEqualTo(LongDijkstra.UNREACHABLE);
+        assertThat(doubleDistances[v]).isEqualTo(Double.POSITIVE_INFINITY);
+      } else {
+        assertThat(longDistances[v]).isEqualTo((long) expected[v]);
+        assertThat(doubleDistances[v]).isEqualTo((double) expected[v]);
+      }
+    }
+  }
+
+  @Test
+  public void computeShortestPathsLazy_matchesBellmanFord() {
+    // ARRANGE
+    int n = 300;
+    randomGraph(n, 2000, 45);
+    Dijkstra dijkstra = new Dijkstra(n, from, to, weights);
+    int[] expected = bellmanFord(n, 0);
+
+    // ACT
+    int[] lazy = dijkstra.computeShortestPathsLazy(0, false);
+    int[] compacted = dijkstra.computeShortestPathsLazy(0, true);
+
+    // ASSERT
+    assertThat(lazy).isEqualTo(expected);
+    assertThat(compacted).isEqualTo(expected);
+  }
+
+  @Test
+  public void computeShortestPaths_fromManyThreads_matchesBellmanFord() throws Exception {
+    // ARRANGE
+    int n = 300;
+    randomGraph(n, 1200, 48);
+    Dijkstra dijkstra = new Dijkstra(n, from, to, weights);
+    int noQueries = 64;
+    int[][] expected = new int[noQueries][];
+    for (int q = 0; q < noQueries; q++) {
+      expected[q] = bellmanFord(n, q);
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<int[]>> results = new ArrayList<>();
+
+    // ACT
+    for (int q = 0; q < noQueries; q++) {
+      int s = q;
+      results.add(executor.submit(() -> dijkstra.computeShortestPaths(s).distances()));
+    }
+
+    // ASSERT
+    for (int q = 0; q < noQueries; q++) {
+      assertThat(results.get(q).get()).isEqualTo(expected[q]);
+    }
+    executor.shutdown();
+  }
+
+  @Test
+  public void computeShortestPaths_pathsHaveTheirDistances() {
+    // ARRANGE
+    int n = 300;
+    randomGraph(n, 900, 49);
+    Dijkstra dijkstra = new Dijkstra(n, from, to, weights);
+    int[] expected = bellmanFord(n, 0);
+
+    // ACT
+    ShortestPaths paths = dijkstra.computeShortestPaths(0);
+
+    // ASSERT
+    assertThat(paths.distances()).isEqualTo(expected);
+    for (int v = 0; v < n; v++) {
+      int[] path = paths.pathTo(v);
+      if (expected[v] == Integer.MAX_VALUE) {
+        assertThat(path).asList().isEmpty();
+        continue;
+      }
+      assertThat(path[0]).isEqualTo(0);
+      assertThat(path[path.length - 1]).isEqualTo(v);
+      int length = 0;
+      for (int i = 1; i < path.length; i++) {
+        length += lightestEdge(path[i - 1], path[i]);
+      }
+      assertThat(length).isEqualTo(expected[v]);
+    }
+  }
+
+  @Test
+  public void shortestPath_matchesBellmanFord_forEveryTarget() {
+    // ARRANGE
+    int n = 200;
+    randomGraph(n, 500, 50);
+    Dijkstra dijkstra = new Dijkstra(n, from, to, weights);
+    int[] expected = bellmanFord(n, 3);
+
+    for (int t = 0; t < n; t++) {
+      // ACT
+      Path path = dijkstra.shortestPath(3, t);
+
+      // ASSERT
+      assertThat(path.distance()).isEqualTo(expected[t]);
+      int[] vertices = path.vertices();
+      assertThat(vertices.length > 0).isEqualTo(path.exists());
+      int length = 0;
+      for (int i = 1; i < vertices.length; i++) {
+        length += lightestEdge(vertices[i - 1], vertices[i]);
+      }
+      if (path.exists()) {
+        assertThat(vertices[0]).isEqualTo(3);
+        assertThat(vertices[vertices.length - 1]).isEqualTo(t);
+        assertThat(length).isEqualTo(expected[t]);
+      }
+    }
+  }
+
+  @Test
+  public void search_withTarget_stopsOnceTargetIsSettled() {
+    // ARRANGE
+    // a line 0 -> 1 -> ... -> n - 1
+    int n = 1000;
+    for (int v = 0; v + 1 < n; v++) {
+      from.add(v);
+      to.add(v + 1);
+      weights.add(1);
+    }
+    Dijkstra dijkstra = new Dijkstra(n, from, to, weights);
+    DijkstraContext context = new DijkstraContext(n);
+
+    // ACT
+    dijkstra.search(0, context, 10, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    // ASSERT
+    assertThat(context.noSettled()).isEqualTo(11);
+    assertThat(context.noReached()).isEqualTo(11);
+    assertThat(dijkstra.shortestPath(0, 10).distance()).isEqualTo(10);
+  }
+
+  @Test
+  public void withinRadiusAndNearest_matchSortedDistances() {
+    // ARRANGE
+    int n = 300;
+    randomGraph(n, 1200, 51);
+    Dijkstra dijkstra = new Dijkstra(n, from, to, weights);
+    int[] sorted = bellmanFord(n, 0).clone();
+    Arrays.sort(sorted);
+    int radius = sorted[40];
+
+    // ACT
+    Neighbourhood ball = dijkstra.withinRadius(0, radius);
+    Neighbourhood nearest = dijkstra.nearest(0, 25);
+
+    // ASSERT
+    int inside = 0;
+    while (inside < n && sorted[inside] <= radius) {
+      inside++;
+    }
+    assertThat(ball.size()).isEqualTo(inside);
+    for (int i = 0; i < ball.size(); i++) {
+      assertThat(ball.distance(i)).isEqualTo(sorted[i]);
+    }
+    assertThat(nearest.size()).isEqualTo(25);
+    assertThat(nearest.vertex(0)).isEqualTo(0);
+    for (int i = 0; i < nearest.size(); i++) {
+      assertThat(nearest.distance(i)).isEqualTo(sorted[i]);
+    }
+  }
+
+  private int lightestEdge(int u, int v) {
+    int lightest = Integer.MAX_VALUE;
+    for (int i = 0; i < from.size(); i++) {
+      if (from.get(i) == u && to.get(i) == v) {
+        lightest = Math.min(lightest, weights.get(i));
+      }
+    }
+    return lightest;
+  }
+}
@@ -0,0 +1,35 @@
+package graph;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ShortestPathsTest {
+
+  private static final int NONE = DijkstraContext.NO_PREDECESSOR;
+  private static final int INF = ShortestPaths.UNREACHABLE;
+
+  @Test
+  public void pathTo_followsPredecessorsFromSource() {
+    // ARRANGE
+    // tree 2 -> 0 -> 3 -> 1, vertex 4 unreachable
+    ShortestPaths paths = new ShortestPaths(2, new int[]{4, 9, 0, 6, INF},
+        new int[]{2, 3, NONE, 0, NONE});
+
+    // ACT
+    int[] toOne = paths.pathTo(1);
+    int[] toSource = paths.pathTo(2);
+    int[] toUnreachable = paths.pathTo(4);
+
+    // ASSERT
+    assertThat(toOne).asList().containsExactly(2, 0, 3, 1).inOrder();
+    assertThat(toSource).asList().containsExactly(2);
+    assertThat(toUnreachable).asList().isEmpty();
+    assertThat(paths.isReachable(4)).isFalse();
+    assertThat(paths.distanceTo(1)).isEqualTo(9);
+  }
+
+}
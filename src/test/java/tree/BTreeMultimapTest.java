@@ -0,0 +1,121 @@
+package tree;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+@RunWith(JUnit4.class)
+public class BTreeMultimapTest {
+
+  @Test
+  public void getAll_returnsValuesInOrder() {
+    // ARRANGE
+    BTreeMultimap<String, Long> multimap = new BTreeMultimap<>();
+    multimap.add("red", 30L);
+    multimap.add("red", 10L);
+    multimap.add("blue", 5L);
+    multimap.add("red", 20L);
+
+    // ACT
+    List<Long> red = multimap.getAll("red");
+
+    // ASSERT
+    assertThat(red).containsExactly(10L, 20L, 30L).inOrder();
+    assertThat(multimap.getAll("green")).isEmpty();
+    assertThat(multimap.size()).isEqualTo(4);
+  }
+
+  @Test
+  public void add_ignoresDuplicatePairs() {
+    // ARRANGE
+    BTreeMultimap<String, String> multimap = new BTreeMultimap<>();
+    multimap.add("k", "a");
+
+    // ACT
+    boolean added = multimap.add("k", "a");
+
+    // ASSERT
+    assertThat(added).isFalse();
+    assertThat(multimap.count("k")).isEqualTo(1);
+  }
+
+  @Test
+  public void remove_deletesKey_whenLastValueRemoved() {
+    // ARRANGE
+    BTreeMultimap<Integer, Long> multimap = new BTreeMultimap<>();
+    multimap.add(1, 100L);
+    multimap.add(1, 200L);
+
+    // ACT
+    boolean first = multimap.remove(1, 100L);
+    boolean missing = multimap.remove(1, 300L);
+    boolean last = multimap.remove(1, 200L);
+
+    // ASSERT
+    assertThat(first).isTrue();
+    assertThat(missing).isFalse();
+    assertThat(last).isTrue();
+    assertThat(multimap.count(1)).isEqualTo(0);
+    assertThat(multimap.scan(0, 10).hasNext()).isFalse();
+  }
+
+  @Test
+  public void largePostingList_spills_andKeepsWorking() {
+    // ARRANGE
+    BTreeMultimap<Integer, Long> multimap = new BTreeMultimap<>(3, 16);
+    Random random = new Random(51);
+    TreeSet<Long> expected = new TreeSet<>();
+
+    // ACT
+    for (int i = 0; i < 2000; i++) {
+      long value = random.nextInt(1000);
+      if (random.nextInt(3) == 0) {
+        assertThat(multimap.remove(7, value)).isEqualTo(expected.remove(value));
+      } else {
+        assertThat(multimap.add(7, value)).isEqualTo(expected.add(value));
+      }
+    }
+
+    // ASSERT
+    assertThat(multimap.isSpilled(7)).isTrue();
+    assertThat(multimap.getAll(7)).containsExactlyElementsIn(expected).inOrder();
+    assertThat(multimap.containsEntry(7, expected.first())).isTrue();
+  }
+
+  @Test
+  public void scan_iteratesKeysWithValues_inRange() {
+    // ARRANGE
+    BTreeMultimap<Integer, String> multimap = new BTreeMultimap<>(2, 4);
+    TreeMap<Integer, TreeSet<String>> expected = new TreeMap<>();
+    Random random = new Random(52);
+    for (int i = 0; i < 500; i++) {
+      int key = random.nextInt(50);
+      String value = Integer.toString(random.nextInt(20));
+      multimap.add(key, value);
+      expected.computeIfAbsent(key, k -> new TreeSet<>()).add(value);
+    }
+
+    // ACT
+    List<Integer> keys = new ArrayList<>();
+    for (Iterator<Map.Entry<Integer, List<String>>> it = multimap.scan(10, 40); it.hasNext(); ) {
+      Map.Entry<Integer, List<String>> entry = it.next();
+      keys.add(entry.getKey());
+      // ASSERT
+      assertThat(entry.getValue()).containsExactlyElementsIn(expected.get(entry.getKey())).inOrder();
+    }
+
+    // ASSERT
+    assertThat(keys).containsExactlyElementsIn(expected.subMap(10, 40).keySet()).inOrder();
+  }
+
+}
@@ -7,6 +7,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -26,6 +29,50 @@ public class BTreeTest {
     for (int i : keys) tree.insert(i, Integer.toString(i));
   }
 
+  private static <K extends Comparable<K>> List<K> keysInOrder(BTree<K, ?> tree) {
+    List<K> keys = new ArrayList<>();
+    for (BTree<K, ?>.Cursor cursor = tree.new Cursor(); cursor.isValid(); cursor.next()) {
+      keys.add(cursor.key());
+    }
+    return keys;
+  }
+
+  /**
+   * Checks size bounds, parent pointers, key order and that all leaves are on the same level.
+   *
+   * @return Height of the subtree.
+   */
+  private static <K extends Comparable<K>> int assertValid(BTree<K, ?>.BNode node, int t) {
+    assertThat(node.keys).hasSize(node.size);
+    assertThat(node.values).hasSize(node.size);
+    assertThat(node.children).hasSize(node.size + 1);
+    assertThat(node.keys).isInStrictOrder();
+    if (node.parent != null) {
+      assertThat(node.size).isAtLeast(t - 1);
+    }
+    assertThat(node.size).isAtMost(2 * t - 1);
+    if (node.children.get(0) == null) {
+      return 1;
+    }
+    int height = -1;
+    for (int i = 0; i <= node.size; i++) {
+      BTree<K, ?>.BNode child = node.children.get(i);
+      assertThat(child.parent).isSameInstanceAs(node);
+      if (i > 0) assertThat(child.keys.get(0).compareTo(node.keys.get(i - 1))).isGreaterThan(0);
+      if (i < node.size) assertThat(child.keys.get(child.size - 1).compareTo(node.keys.get(i))).isLessThan(0);
+      int childHeight = assertValid(child, t);
+      if (height != -1) assertThat(childHeight).isEqualTo(height);
+      height = childHeight;
+    }
+    return height + 1;
+  }
+
+  private static BTree<Integer, String> treeOf(int t, Collection<Integer> keys) {
+    BTree<Integer, String> tree = new BTree<>(t);
+    insertAll(tree, keys);
+    return tree;
+  }
+
   @Test
   public void insert_insertsElem_toEmptyLeafNode() {
     // ARRANGE
@@ -480,4 +527,703 @@ public class BTreeTest {
     assertThat(tree.root.children.get(0)).isNull();
   }
 
+  @Test
+  public void cursor_iteratesInOrder_overMultiLevelTree() {
+    // ARRANGE
+    List<Integer> keys = new Random(7).ints(300, 0, 100000).distinct().boxed().collect(Collectors.toList());
+    BTree<Integer, String> tree = treeOf(2, keys);
+
+    // ACT
+    List<Integer> iterated = keysInOrder(tree);
+
+    // ASSERT
+    assertThat(iterated).containsExactlyElementsIn(keys);
+    assertThat(iterated).isInStrictOrder();
+  }
+
+  @Test
+  public void cursor_isInvalid_forEmptyTree() {
+    // ARRANGE
+    BTree<Integer, String> tree = new BTree<>();
+
+    // ACT
+    BTree<Integer, String>.Cursor cursor = tree.new Cursor();
+
+    // ASSERT
+    assertThat(cursor.isValid()).isFalse();
+  }
+
+  @Test
+  public void cursor_seeksToFirstKeyNotSmaller() {
+    // ARRANGE
+    BTree<Integer, String> tree = new BTree<>(3);
+    for (int i = 0; i < 1000; i += 10) tree.insert(i, Integer.toString(i));
+    BTree<Integer, String>.Cursor cursor = tree.new Cursor();
+
+    // ACT
+    cursor.seek(455);
+    int afterGap = cursor.key();
+    cursor.seek(700);
+    int exact = cursor.key();
+    cursor.seek(600);
+    int backwards = cursor.key();
+    cursor.seek(991);
+
+    // ASSERT
+    assertThat(afterGap).isEqualTo(460);
+    assertThat(exact).isEqualTo(700);
+    assertThat(backwards).isEqualTo(700);
+    assertThat(cursor.isValid()).isFalse();
+  }
+
+  @Test
+  public void buildFromSorted_buildsValidTree_forAllSizes() {
+    for (int t = 2; t <= 4; t++) {
+      for (int n = 0; n <= 300; n++) {
+        // ARRANGE
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < n; i++) keys.add(i);
+        List<String> values = keys.stream().map(Object::toString).collect(Collectors.toList());
+        BTree<Integer, String> tree = new BTree<>(t);
+
+        // ACT
+        tree.buildFromSorted(keys.iterator(), values.iterator(), n);
+
+        // ASSERT
+        assertValid(tree.root, t);
+        assertThat(keysInOrder(tree)).containsExactlyElementsIn(keys).inOrder();
+      }
+    }
+  }
+
+  @Test
+  public void union_containsKeysOfBothTrees() {
+    // ARRANGE
+    BTree<Integer, String> a = treeOf(3, List.of(1, 3, 5, 7, 9, 11));
+    BTree<Integer, String> b = treeOf(3, List.of(2, 3, 4, 100, 200));
+
+    // ACT
+    BTree<Integer, String> union = a.union(b);
+
+    // ASSERT
+    assertValid(union.root, 3);
+    assertThat(keysInOrder(union)).containsExactly(1, 2, 3, 4, 5, 7, 9, 11, 100, 200).inOrder();
+    assertThat(keysInOrder(a)).containsExactly(1, 3, 5, 7, 9, 11).inOrder();
+  }
+
+  @Test
+  public void intersection_containsCommonKeys() {
+    // ARRANGE
+    Random random = new Random(42);
+    Set<Integer> left = random.ints(500, 0, 2000).boxed().collect(Collectors.toSet());
+    Set<Integer> right = random.ints(500, 0, 2000).boxed().collect(Collectors.toSet());
+    Set<Integer> common = new TreeSet<>(left);
+    common.retainAll(right);
+
+    // ACT
+    BTree<Integer, String> intersection = treeOf(2, left).intersection(treeOf(4, right));
+
+    // ASSERT
+    assertValid(intersection.root, 2);
+    assertThat(keysInOrder(intersection)).containsExactlyElementsIn(common).inOrder();
+  }
+
+  @Test
+  public void difference_removesKeysOfOtherTree() {
+    // ARRANGE
+    Random random = new Random(43);
+    Set<Integer> left = random.ints(500, 0, 2000).boxed().collect(Collectors.toSet());
+    Set<Integer> right = random.ints(500, 0, 2000).boxed().collect(Collectors.toSet());
+    Set<Integer> expected = new TreeSet<>(left);
+    expected.removeAll(right);
+
+    // ACT
+    BTree<Integer, String> difference = treeOf(3, left).difference(treeOf(3, right));
+
+    // ASSERT
+    assertValid(difference.root, 3);
+    assertThat(keysInOrder(difference)).containsExactlyElementsIn(expected).inOrder();
+  }
+
+  @Test
+  public void mergeJoin_passesValuesOfBothTrees() {
+    // ARRANGE
+    BTree<Integer, String> a = treeOf(2, List.of(1, 2, 3, 4, 5, 6, 7, 8));
+    BTree<Integer, Integer> b = new BTree<>(2);
+    for (int i : List.of(0, 4, 6, 9)) b.insert(i, i * i);
+    List<String> joined = new ArrayList<>();
+
+    // ACT
+    a.mergeJoin(b, (key, value, otherValue) -> joined.add(key + ":" + value + ":" + otherValue));
+
+    // ASSERT
+    assertThat(joined).containsExactly("4:4:16", "6:6:36").inOrder();
+  }
+
+  @Test
+  public void intersection_isEmpty_forDisjointRanges() {
+    // ARRANGE
+    List<Integer> low = new ArrayList<>();
+    List<Integer> high = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      low.add(i);
+      high.add(i + 1000);
+    }
+
+    // ACT
+    BTree<Integer, String> intersection = treeOf(2, low).intersection(treeOf(2, high));
+
+    // ASSERT
+    assertThat(intersection.root.size).isEqualTo(0);
+  }
+
+  @Test
+  public void splitAt_partitionsKeys_forEverySplitPoint() {
+    for (int t = 2; t <= 3; t++) {
+      List<Integer> keys = new Random(t).ints(150, 0, 300).distinct().boxed().sorted().collect(Collectors.toList());
+      for (int splitKey = -1; splitKey <= 301; splitKey += 7) {
+        // ARRANGE
+        BTree<Integer, String> tree = treeOf(t, keys);
+        int pivot = splitKey;
+
+        // ACT
+        List<BTree<Integer, String>> parts = tree.splitAt(pivot);
+
+        // ASSERT
+        assertValid(parts.get(0).root, t);
+        assertValid(parts.get(1).root, t);
+        assertThat(keysInOrder(parts.get(0)))
+            .containsExactlyElementsIn(keys.stream().filter(k -> k < pivot).collect(Collectors.toList())).inOrder();
+        assertThat(keysInOrder(parts.get(1)))
+            .containsExactlyElementsIn(keys.stream().filter(k -> k >= pivot).collect(Collectors.toList())).inOrder();
+        assertThat(tree.root.size).isEqualTo(0);
+      }
+    }
+  }
+
+  @Test
+  public void splitAt_putsExistingKeyIntoRightTree() {
+    // ARRANGE
+    BTree<Integer, String> tree = treeOf(2, List.of(10, 20, 30, 40, 50, 60, 70, 80, 90));
+
+    // ACT
+    List<BTree<Integer, String>> parts = tree.splitAt(40);
+
+    // ASSERT
+    assertThat(keysInOrder(parts.get(0))).containsExactly(10, 20, 30).inOrder();
+    assertThat(keysInOrder(parts.get(1))).containsExactly(40, 50, 60, 70, 80, 90).inOrder();
+  }
+
+  @Test
+  public void concat_joinsTrees_ofDifferentHeights() {
+    for (int leftSize = 0; leftSize <= 120; leftSize += 17) {
+      for (int rightSize = 0; rightSize <= 120; rightSize += 13) {
+        // ARRANGE
+        List<Integer> leftKeys = new ArrayList<>();
+        List<Integer> rightKeys = new ArrayList<>();
+        for (int i = 0; i < leftSize; i++) leftKeys.add(i);
+        for (int i = 0; i < rightSize; i++) rightKeys.add(1000 + i);
+        BTree<Integer, String> left = treeOf(2, leftKeys);
+        BTree<Integer, String> right = treeOf(2, rightKeys);
+
+        // ACT
+        BTree<Integer, String> tree = BTree.concat(left, right);
+
+        // ASSERT
+        List<Integer> expected = new ArrayList<>(leftKeys);
+        expected.addAll(rightKeys);
+        assertValid(tree.root, 2);
+        assertThat(keysInOrder(tree)).containsExactlyElementsIn(expected).inOrder();
+        assertThat(left.root.size).isEqualTo(0);
+        assertThat(right.root.size).isEqualTo(0);
+      }
+    }
+  }
+
+  @Test
+  public void concat_withRelaxedRight_leavesValidTree_andEmptyQueues() {
+    // ARRANGE
+    List<Integer> leftKeys = new ArrayList<>();
+    List<Integer> rightKeys = new ArrayList<>();
+    for (int i = 0; i < 100; i++) leftKeys.add(i);
+    for (int i = 100; i < 200; i++) rightKeys.add(i);
+    BTree<Integer, String> left = treeOf(3, leftKeys);
+    BTree<Integer, String> right = treeOf(3, rightKeys);
+    right.setRelaxedDeletes(true);
+
+    // ACT
+    BTree<Integer, String> tree = BTree.concat(left, right);
+
+    // ASSERT
+    assertValid(tree.root, 3);
+    assertThat(tree.pendingCompactions()).isEqualTo(0);
+    assertThat(left.pendingCompactions()).isEqualTo(0);
+    assertThat(right.pendingCompactions()).isEqualTo(0);
+    right.compact(Integer.MAX_VALUE);
+    assertValid(tree.root, 3);
+    List<Integer> expected = new ArrayList<>(leftKeys);
+    expected.addAll(rightKeys);
+    assertThat(keysInOrder(tree)).containsExactlyElementsIn(expected).inOrder();
+  }
+
+  @Test
+  public void concat_throws_ifKeyRangesOverlap() {
+    // ARRANGE
+    BTree<Integer, String> left = treeOf(2, List.of(1, 5, 9));
+    BTree<Integer, String> right = treeOf(2, List.of(7, 10));
+
+    try {
+      // ACT
+      BTree.concat(left, right);
+      throw new RuntimeException("No exception thrown by concat for overlapping trees.");
+    } catch (IllegalArgumentException e) {
+      // ASSERT
+    }
+  }
+
+  @Test
+  public void splitAtThenConcat_restoresTree_andKeepsItUsable() {
+    // ARRANGE
+    List<Integer> keys = new Random(11).ints(400).distinct().boxed().collect(Collectors.toList());
+    BTree<Integer, String> tree = treeOf(3, keys);
+    List<BTree<Integer, String>> parts = tree.splitAt(keys.get(0));
+
+    // ACT
+    BTree<Integer, String> joined = BTree.concat(parts.get(0), parts.get(1));
+    List<Integer> more = new Random(12).ints(400).boxed().filter(k -> !keys.contains(k)).collect(Collectors.toList());
+    insertAll(joined, more);
+    assertValid(joined.root, 3);
+    Collections.shuffle(keys);
+    for (int key : keys) joined.delete(key);
+
+    // ASSERT
+    assertValid(joined.root, 3);
+    assertThat(keysInOrder(joined)).containsExactlyElementsIn(new TreeSet<>(more)).inOrder();
+  }
+
+  @Test
+  public void insertAllDeleteAllTest_forPrefixCompressedKeys() {
+    // ARRANGE
+    BTree<String, String> tree = new BTree<>(3, KeyFormat.prefixCompressed());
+    List<String> keys = new Random(5).ints(500, 0, 100000).distinct()
+        .mapToObj(i -> "https://example.com/items/" + i).collect(Collectors.toList());
+    for (String key : keys) tree.insert(key, key);
+    assertValid(tree.root, 3);
+    assertThat(keysInOrder(tree)).containsExactlyElementsIn(new TreeSet<>(keys)).inOrder();
+    Collections.shuffle(keys);
+
+    // ACT
+    for (String key : keys) {
+      tree.delete(key);
+    }
+
+    // ASSERT
+    assertThat(tree.root.size).isEqualTo(0);
+  }
+
+  @Test
+  public void insertAllDeleteAllTest_forFrameOfReferenceKeys() {
+    // ARRANGE
+    BTree<Long, String> tree = new BTree<>(4, KeyFormat.frameOfReference());
+    List<Long> keys = new Random(6).longs(500).distinct().boxed().collect(Collectors.toList());
+    for (long key : keys) tree.insert(key, Long.toString(key));
+    assertValid(tree.root, 4);
+    assertThat(keysInOrder(tree)).containsExactlyElementsIn(new TreeSet<>(keys)).inOrder();
+    Collections.shuffle(keys);
+
+    // ACT
+    for (long key : keys) {
+      tree.delete(key);
+    }
+
+    // ASSERT
+    assertThat(tree.root.size).isEqualTo(0);
+  }
+
+  @Test
+  public void find_returnsValues_forPrefixCompressedKeys() {
+    // ARRANGE
+    BTree<String, String> tree = new BTree<>(3, KeyFormat.prefixCompressed());
+    List<String> keys = new Random(7).ints(300, 0, 100000).distinct()
+        .mapToObj(i -> "https://example.com/items/" + i).collect(Collectors.toList());
+    for (String key : keys) tree.insert(key, key.toUpperCase());
+
+    for (String key : keys) {
+      // ACT
+      // an equal key that is not the inserted instance
+      String found = tree.find(new String(key));
+
+      // ASSERT
+      assertThat(found).isEqualTo(key.toUpperCase());
+    }
+    assertThat(tree.find("https://example.com/items/x")).isNull();
+  }
+
+  @Test
+  public void find_returnsValues_forFrameOfReferenceKeys() {
+    // ARRANGE
+    BTree<Long, String> tree = new BTree<>(4, KeyFormat.frameOfReference());
+    List<Long> keys = new Random(8).longs(300).distinct().boxed().collect(Collectors.toList());
+    for (long key : keys) tree.insert(key, Long.toString(key));
+    long absent = 0;
+    while (keys.contains(absent)) absent++;
+
+    for (long key : keys) {
+      // ACT
+      String found = tree.find(key);
+
+      // ASSERT
+      assertThat(found).isEqualTo(Long.toString(key));
+    }
+    assertThat(tree.find(absent)).isNull();
+  }
+
+  @Test
+  public void find_returnsValue_forKeyInInternalNode() {
+    // ARRANGE
+    BTree<Integer, String> tree = new BTree<>();
+    insertAll(tree, 1000, 2000, 3000, 4000, 5000, 6000);
+
+    // ACT
+    String value = tree.find(tree.root.keys.get(0));
+
+    // ASSERT
+    assertThat(value).isEqualTo(Integer.toString(tree.root.keys.get(0)));
+  }
+
+  @Test
+  public void find_returnsNull_forEmptyTreeAndKeyAboveMaximum() {
+    // ARRANGE
+    BTree<Integer, String> tree = new BTree<>();
+    BTree<Integer, String> other = new BTree<>();
+    insertAll(other, 10, 20);
+
+    // ACT
+    String inEmpty = tree.find(10);
+    String aboveMaximum = other.find(30);
+
+    // ASSERT
+    assertThat(inEmpty).isNull();
+    assertThat(aboveMaximum).isNull();
+  }
+
+  @Test
+  public void find_isShortCircuited_byBloomFilter() {
+    // ARRANGE
+    BTree<Integer, String> tree = new BTree<>(3);
+    for (int i = 0; i < 1000; i++) tree.insert(2 * i, Integer.toString(2 * i));
+    tree.enableBloomFilter(1000, 0.01);
+    for (int i = 1000; i < 1500; i++) tree.insert(2 * i, Integer.toString(2 * i));
+
+    // ACT
+    int found = 0;
+    for (int i = 0; i < 3000; i++) {
+      if (tree.find(i) != null) found++;
+    }
+
+    // ASSERT
+    CountingBloomFilter<Integer> filter = tree.getBloomFilter();
+    assertThat(found).isEqualTo(1500);
+    assertThat(filter.getLookups()).isEqualTo(3000);
+    assertThat(filter.getNegatives() + filter.getFalsePositives()).isEqualTo(1500);
+    assertThat(filter.getFalsePositives()).isLessThan(100L);
+  }
+
+  @Test
+  public void bloomFilter_doesNotCountFalsePositives_forNullValues() {
+    // ARRANGE
+    BTree<Integer, String> tree = new BTree<>(3);
+    tree.enableBloomFilter(100, 0.01);
+    for (int i = 0; i < 100; i++) tree.insert(i, null);
+
+    // ACT
+    for (int i = 0; i < 100; i++) tree.find(i);
+
+    // ASSERT
+    assertThat(tree.getBloomFilter().getLookups()).isEqualTo(100);
+    assertThat(tree.getBloomFilter().getFalsePositives()).isEqualTo(0);
+  }
+
+  @Test
+  public void bloomFilter_forgetsDeletedKeys() {
+    // ARRANGE
+    BTree<Integer, String> tree = new BTree<>(2);
+    tree.enableBloomFilter(100, 0.01);
+    List<Integer> keys = new ArrayList<>();
+    for (int i = 0; i < 100; i++) keys.add(i * 7919);
+    insertAll(tree, keys);
+
+    // ACT
+    for (int key : keys.subList(0, 50)) tree.delete(key);
+
+    // ASSERT
+    for (int key : keys.subList(50, 100)) assertThat(tree.find(key)).isEqualTo(Integer.toString(key));
+    for (int key : keys.subList(0, 50)) assertThat(tree.find(key)).isNull();
+    assertThat(tree.getBloomFilter().getNegatives()).isGreaterThan(40L);
+  }
+
+  @Test
+  public void relaxedDelete_leavesNodesUnderfull_untilCompacted() {
+    // ARRANGE
+    BTree<Integer, String> tree = new BTree<>(3);
+    List<Integer> keys = new Random(21).ints(1000).distinct().boxed().collect(Collectors.toList());
+    insertAll(tree, keys);
+    tree.setRelaxedDeletes(true);
+    Collections.shuffle(keys, new Random(22));
+
+    // ACT
+    for (int key : keys.subList(0, 800)) tree.delete(key);
+    int pending = tree.pendingCompactions();
+    int calls = 0;
+    while (!tree.compact(5)) calls++;
+
+    // ASSERT
+    assertThat(pending).isGreaterThan(0);
+    assertThat(calls).isGreaterThan(0);
+    assertValid(tree.root, 3);
+    assertThat(keysInOrder(tree)).containsExactlyElementsIn(new TreeSet<>(keys.subList(800, 1000))).inOrder();
+  }
+
+  @Test
+  public void relaxedDelete_keepsTreeSearchable_withInterleavedInserts() {
+    // ARRANGE
+    BTree<Integer, String> tree = new BTree<>(2);
+    tree.setRelaxedDeletes(true);
+    Random random = new Random(23);
+    TreeSet<Integer> expected = new TreeSet<>();
+
+    // ACT
+    for (int i = 0; i < 3000; i++) {
+      int key = random.nextInt(500);
+      if (expected.contains(key)) {
+        tree.delete(key);
+        expected.remove(key);
+      } else {
+        tree.insert(key, Integer.toString(key));
+        expected.add(key);
+      }
+      if (i % 10 == 0) tree.compact(2);
+    }
+
+    // ASSERT
+    assertThat(keysInOrder(tree)).containsExactlyElementsIn(expected).inOrder();
+    for (int key = 0; key < 500; key++) {
+      assertThat(tree.find(key)).isEqualTo(expected.contains(key) ? Integer.toString(key) : null);
+    }
+    tree.setRelaxedDeletes(false);
+    assertValid(tree.root, 2);
+    for (int key : expected) tree.delete(key);
+    assertThat(tree.root.size).isEqualTo(0);
+  }
+
+  @Test
+  public void relaxedDelete_emptiesTree() {
+    // ARRANGE
+    BTree<Integer, String> tree = new BTree<>(2);
+    List<Integer> keys = new Random(24).ints(300).distinct().boxed().collect(Collectors.toList());
+    insertAll(tree, keys);
+    tree.setRelaxedDeletes(true);
+    Collections.shuffle(keys, new Random(25));
+
+    // ACT
+    for (int key : keys) tree.delete(key);
+    tree.compact(Integer.MAX_VALUE);
+
+    // ASSERT
+    assertThat(tree.root.size).isEqualTo(0);
+    assertThat(tree.root.children.get(0)).isNull();
+  }
+
+  @Test
+  public void scan_returnsEntriesInRange() {
+    // ARRANGE
+    BTree<Integer, String> tree = new BTree<>(2);
+    for (int i = 0; i < 200; i += 2) tree.insert(i, Integer.toString(i));
+    List<Integer> scanned = new ArrayList<>();
+
+    // ACT
+    for (Iterator<Map.Entry<Integer, String>> it = tree.scan(31, 51); it.hasNext(); ) {
+      scanned.add(it.next().getKey());
+    }
+
+    // ASSERT
+    assertThat(scanned).containsExactly(32, 34, 36, 38, 40, 42, 44, 46, 48, 50).inOrder();
+  }
+
+  @Test
+  public void scan_prefetchesLeavesAhead_beforeReachingThem() {
+    // ARRANGE
+    BTree<Integer, String> tree = new BTree<>(3);
+    for (int i = 0; i < 1000; i++) tree.insert(i, Integer.toString(i));
+    List<int[]> prefetched = new ArrayList<>(); // first key, last key, entries consumed at request
+    int[] consumed = {0};
+    Iterator<Map.Entry<Integer, String>> it = tree.scan(100, 900, 3, Runnable::run,
+        (first, last) -> prefetched.add(new int[]{first, last, consumed[0]}));
+
+    // ACT
+    List<Integer> scanned = new ArrayList<>();
+    while (it.hasNext()) {
+      int key = it.next().getKey();
+      for (int[] range : prefetched) {
+        if (range[0] <= key && key <= range[1]) {
+          // ASSERT
+          assertThat(range[2]).isLessThan(consumed[0]);
+        }
+      }
+      scanned.add(key);
+      consumed[0]++;
+    }
+
+    // ASSERT
+    assertThat(scanned).hasSize(800);
+    assertThat(prefetched.size()).isGreaterThan(20);
+    for (int i = 0; i < prefetched.size(); i++) {
+      assertThat(prefetched.get(i)[0]).isLessThan(900);
+      if (i > 0) assertThat(prefetched.get(i)[0]).isGreaterThan(prefetched.get(i - 1)[1]);
+    }
+    // The scan starts three leaves behind the scout.
+    assertThat(prefetched.get(2)[2]).isEqualTo(0);
+  }
+
+  @Test
+  public void find_isServedFromLookupCache_andInvalidatedByUpdates() {
+    // ARRANGE
+    BTree<Integer, String> tree = new BTree<>(2);
+    insertAll(tree, 10, 20, 30, 40, 50);
+    tree.enableLookupCache(10);
+    tree.find(30);
+
+    // ACT
+    String cached = tree.find(30);
+    tree.delete(30);
+    String deleted = tree.find(30);
+    tree.insert(30, "thirty");
+    String reinserted = tree.find(30);
+
+    // ASSERT
+    assertThat(cached).isEqualTo("30");
+    assertThat(deleted).isNull();
+    assertThat(reinserted).isEqualTo("thirty");
+    assertThat(tree.getLookupCache().getHits()).isEqualTo(1);
+    assertThat(tree.getLookupCache().getMisses()).isEqualTo(3);
+  }
+
+  @Test
+  public void readSnapshot_restoresTree_writtenBySnapshot() throws IOException {
+    // ARRANGE
+    List<Integer> keys = new Random(41).ints(2000).distinct().boxed().collect(Collectors.toList());
+    BTree<Integer, String> tree = treeOf(3, keys);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    tree.writeSnapshot(out, Codec.integers(), Codec.strings());
+    BTree<Integer, String> restored = new BTree<>(5);
+
+    // ACT
+    restored.readSnapshot(new ByteArrayInputStream(out.toByteArray()), Codec.integers(), Codec.strings());
+
+    // ASSERT
+    assertValid(restored.root, 5);
+    assertThat(keysInOrder(restored)).containsExactlyElementsIn(keysInOrder(tree)).inOrder();
+    for (int key : keys) assertThat(restored.find(key)).isEqualTo(Integer.toString(key));
+  }
+
+  @Test
+  public void readSnapshot_restoresEmptyTree() throws IOException {
+    // ARRANGE
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BTree<Long, Long>().writeSnapshot(out, Codec.longs(), Codec.longs());
+    BTree<Long, Long> restored = new BTree<>();
+    restored.insert(1L, 1L);
+
+    // ACT
+    restored.readSnapshot(new ByteArrayInputStream(out.toByteArray()), Codec.longs(), Codec.longs());
+
+    // ASSERT
+    assertThat(restored.root.size).isEqualTo(0);
+  }
+
+  @Test
+  public void readSnapshot_throws_forOtherData() {
+    // ARRANGE
+    BTree<Long, Long> tree = new BTree<>();
+
+    try {
+      // ACT
+      tree.readSnapshot(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}), Codec.longs(), Codec.longs());
+      throw new RuntimeException("No exception thrown by readSnapshot for invalid data.");
+    } catch (IOException e) {
+      // ASSERT
+    }
+  }
+
+  @Test
+  public void readSnapshot_leavesStreamPastSnapshot() throws IOException {
+    // ARRANGE
+    BTree<Long, Long> tree = new BTree<>(3);
+    for (long i = 0; i < 100; i++) tree.insert(i, -i);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    tree.writeSnapshot(out, Codec.longs(), Codec.longs());
+    out.write(new byte[]{7, 8, 9});
+    ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+    BTree<Long, Long> restored = new BTree<>();
+
+    // ACT
+    restored.readSnapshot(in, Codec.longs(), Codec.longs());
+
+    // ASSERT
+    assertThat(restored.find(99L)).isEqualTo(-99L);
+    assertThat(in.read()).isEqualTo(7);
+    assertThat(in.available()).isEqualTo(2);
+  }
+
+  @Test
+  public void readSnapshot_throwsIOException_forNegativeLength() {
+    // ARRANGE
+    // magic, one entry, key 0, then a string length of 2^63 as a varint
+    byte[] snapshot = {0x42, 0x54, 0x53, 0x31, 1, 0,
+        (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80,
+        (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01};
+    BTree<Long, String> tree = new BTree<>();
+
+    try {
+      // ACT
+      tree.readSnapshot(new ByteArrayInputStream(snapshot), Codec.longs(), Codec.strings());
+      throw new RuntimeException("No exception thrown by readSnapshot for a negative length.");
+    } catch (IOException e) {
+      // ASSERT
+      assertThat(e).hasMessageThat().contains("length");
+    }
+  }
+
+  @Test
+  public void readSnapshot_throwsIOException_forIntKeyOutOfRange() {
+    // ARRANGE
+    // magic, one entry, then a zigzag key of 2^32 as a varint
+    byte[] snapshot = {0x42, 0x54, 0x53, 0x31, 1,
+        (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10, 0};
+    BTree<Integer, Long> tree = new BTree<>();
+
+    try {
+      // ACT
+      tree.readSnapshot(new ByteArrayInputStream(snapshot), Codec.integers(), Codec.longs());
+      throw new RuntimeException("No exception thrown by readSnapshot for a key out of int range.");
+    } catch (IOException e) {
+      // ASSERT
+      assertThat(e).hasMessageThat().contains("int");
+    }
+  }
+
+  @Test
+  public void writeSnapshot_usesFewBytes_forSmallLongKeys() throws IOException {
+    // ARRANGE
+    BTree<Long, Long> tree = new BTree<>(4);
+    for (long i = -50; i < 50; i++) tree.insert(i, i * 2);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // ACT
+    tree.writeSnapshot(out, Codec.longs(), Codec.longs());
+
+    // ASSERT
+    assertThat(out.size()).isAtMost(4 + 1 + 100 * 3);
+  }
+
 }
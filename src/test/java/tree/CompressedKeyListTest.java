@@ -0,0 +1,103 @@
+package tree;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+@RunWith(JUnit4.class)
+public class CompressedKeyListTest {
+
+  private static <K extends Comparable<K>> int expectedPos(List<K> keys, K key) {
+    int pos = 0;
+    while (pos < keys.size() && keys.get(pos).compareTo(key) < 0) pos++;
+    return pos;
+  }
+
+  /**
+   * Applies the same random sorted inserts and removals to the compressed list and an ArrayList.
+   */
+  private static <K extends Comparable<K>> void assertBehavesLikeSortedList(
+      KeyFormat<K> format, Supplier<K> randomKey, Random random) {
+    List<K> expected = new ArrayList<>();
+    for (int i = 0; i < 20; i++) expected.add(randomKey.get());
+    Collections.sort(expected);
+    CompressedKeyList<K> keys = (CompressedKeyList<K>) format.newKeyList(expected);
+
+    for (int step = 0; step < 500; step++) {
+      if (expected.isEmpty() || random.nextBoolean()) {
+        K key = randomKey.get();
+        int pos = expectedPos(expected, key);
+        expected.add(pos, key);
+        keys.add(pos, key);
+      } else {
+        int pos = random.nextInt(expected.size());
+        assertThat(keys.remove(pos)).isEqualTo(expected.remove(pos));
+      }
+      assertThat(keys).containsExactlyElementsIn(expected).inOrder();
+      K probe = randomKey.get();
+      assertThat(keys.findPos(probe)).isEqualTo(expectedPos(expected, probe));
+    }
+  }
+
+  @Test
+  public void prefixCompressed_behavesLikeSortedList() {
+    Random random = new Random(1);
+    String[] prefixes = {"https://example.com/items/", "https://example.com/", "https://example.org/a/", "ftp"};
+    assertBehavesLikeSortedList(KeyFormat.prefixCompressed(),
+        () -> prefixes[random.nextInt(prefixes.length)] + random.nextInt(1000), random);
+  }
+
+  @Test
+  public void prefixCompressed_findPos_forKeysOutsidePrefix() {
+    // ARRANGE
+    CompressedKeyList<String> keys = (CompressedKeyList<String>) KeyFormat.prefixCompressed()
+        .newKeyList(List.of("abc1", "abc2", "abc3"));
+
+    // ACT
+    int beforePrefix = keys.findPos("ab");
+    int smallerPrefix = keys.findPos("abb9");
+    int biggerPrefix = keys.findPos("abd");
+    int insideRange = keys.findPos("abc2x");
+
+    // ASSERT
+    assertThat(beforePrefix).isEqualTo(0);
+    assertThat(smallerPrefix).isEqualTo(0);
+    assertThat(biggerPrefix).isEqualTo(3);
+    assertThat(insideRange).isEqualTo(2);
+  }
+
+  @Test
+  public void frameOfReference_behavesLikeSortedList_forSmallRange() {
+    Random random = new Random(2);
+    assertBehavesLikeSortedList(KeyFormat.frameOfReference(), () -> 1_000_000L + random.nextInt(300), random);
+  }
+
+  @Test
+  public void frameOfReference_behavesLikeSortedList_forFullRange() {
+    Random random = new Random(3);
+    assertBehavesLikeSortedList(KeyFormat.frameOfReference(),
+        () -> random.nextBoolean() ? random.nextLong() : (long) random.nextInt(100), random);
+  }
+
+  @Test
+  public void frameOfReference_widensOffsets_whenRangeGrows() {
+    // ARRANGE
+    List<Long> keys = KeyFormat.frameOfReference().newKeyList(List.of(10L, 20L));
+
+    // ACT
+    keys.add(0, Long.MIN_VALUE);
+    keys.add(3, Long.MAX_VALUE);
+
+    // ASSERT
+    assertThat(keys).containsExactly(Long.MIN_VALUE, 10L, 20L, Long.MAX_VALUE).inOrder();
+  }
+
+}
@@ -0,0 +1,114 @@
+package tree;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class LookupCacheTest {
+
+  private static void lookup(LookupCache<Integer, String> cache, int key) {
+    if (cache.get(key) == null) {
+      cache.put(key, Integer.toString(key));
+    }
+  }
+
+  @Test
+  public void get_returnsCachedValue_afterPut() {
+    // ARRANGE
+    LookupCache<Integer, String> cache = new LookupCache<>(10);
+    cache.get(1);
+    cache.put(1, "1");
+
+    // ACT
+    String value = cache.get(1);
+
+    // ASSERT
+    assertThat(value).isEqualTo("1");
+    assertThat(cache.getHits()).isEqualTo(1);
+    assertThat(cache.getMisses()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_returnsNull_afterInvalidate() {
+    // ARRANGE
+    LookupCache<Integer, String> cache = new LookupCache<>(10);
+    cache.put(1, "1");
+
+    // ACT
+    cache.invalidate(1);
+
+    // ASSERT
+    assertThat(cache.get(1)).isNull();
+  }
+
+  @Test
+  public void size_isBounded_byCapacity() {
+    // ARRANGE
+    LookupCache<Integer, String> cache = new LookupCache<>(50);
+
+    // ACT
+    for (int i = 0; i < 1000; i++) lookup(cache, i);
+
+    // ASSERT
+    assertThat(cache.size()).isAtMost(50);
+  }
+
+  @Test
+  public void hotKeys_surviveScanOfColdKeys() {
+    // ARRANGE
+    LookupCache<Integer, String> cache = new LookupCache<>(100);
+    for (int round = 0; round < 20; round++) {
+      for (int key = 0; key < 50; key++) lookup(cache, key);
+    }
+    long hitsBefore = cache.getHits();
+
+    // ACT
+    for (int key = 1000; key < 1500; key++) lookup(cache, key);
+    for (int key = 0; key < 50; key++) lookup(cache, key);
+
+    // ASSERT
+    assertThat(cache.getHits() - hitsBefore).isAtLeast(45L);
+  }
+
+  @Test
+  public void hitRate_isHigh_forSkewedLookups() {
+    // ARRANGE
+    LookupCache<Integer, String> cache = new LookupCache<>(200);
+    Random random = new Random(31);
+
+    // ACT
+    for (int i = 0; i < 100000; i++) {
+      // 80% of lookups go to 1% of a million keys.
+      lookup(cache, random.nextDouble() < 0.8 ? random.nextInt(100) : random.nextInt(1000000));
+    }
+
+    // ASSERT
+    assertThat(cache.hitRate()).isGreaterThan(0.75);
+  }
+
+  @Test
+  public void frequency_countsUpTo15_andHalvesWhenAged() {
+    // ARRANGE
+    LookupCache<Integer, String> cache = new LookupCache<>(1000);
+    for (int i = 0; i < 40; i++) cache.get(1);
+    for (int i = 0; i < 3; i++) cache.get(2);
+    int hot = cache.frequency(1);
+    int warm = cache.frequency(2);
+
+    // ACT
+    // the sketch ages after 10 * capacity lookups, these all go to one other key
+    for (int i = 43; i < 10000; i++) cache.get(-1);
+
+    // ASSERT
+    assertThat(hot).isEqualTo(15);
+    assertThat(warm).isEqualTo(3);
+    assertThat(cache.frequency(1)).isEqualTo(7);
+    assertThat(cache.frequency(2)).isEqualTo(1);
+  }
+
+}